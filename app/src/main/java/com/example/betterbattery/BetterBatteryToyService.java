@@ -6,64 +6,150 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.RectF;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.hardware.TriggerEvent;
+import android.hardware.TriggerEventListener;
 import android.os.BatteryManager;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.Looper;
 import android.os.Message;
 import android.os.Messenger;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
 
 // Correct Glyph Matrix SDK imports based on the documentation
 import com.nothing.ketchum.Glyph;
 import com.nothing.ketchum.GlyphToy;
 import com.nothing.ketchum.GlyphMatrixManager;
-import com.nothing.ketchum.GlyphMatrixFrame;
-import com.nothing.ketchum.GlyphMatrixObject;
 import com.nothing.ketchum.GlyphMatrixUtils;
 
+import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class BetterBatteryToyService extends Service implements SensorEventListener {
 
+    private static final String TAG = "BetterBatteryToy";
+
     private static final int MATRIX_SIZE = 25;
     private static final int UPDATE_INTERVAL = 50; // 50ms for smoother animation
 
-    private GlyphMatrixManager mGM;
+    private volatile GlyphMatrixManager mGM;
     private GlyphMatrixManager.Callback mCallback;
-    private Handler updateHandler;
-    private Runnable updateRunnable;
 
-    // Sensor management
+    // Rendering runs on its own thread, the Glyph IPC on another and sensor intake on a
+    // third, so none of them waits for the others or for button handling on the main thread
+    private HandlerThread renderThread;
+    private volatile Handler updateHandler;
+    private Runnable updateRunnable;
+    private HandlerThread pushThread;
+    private volatile Handler pushHandler;
+    private final AtomicBoolean pushPending = new AtomicBoolean();
+    private final FrameScheduler frameScheduler = new FrameScheduler(UPDATE_INTERVAL);
+    // Set by the render thread when the liquid came to rest and the loop stopped
+    private volatile boolean loopSuspended = false;
+    private final FrameTripleBuffer frameBuffer = new FrameTripleBuffer(MATRIX_SIZE * MATRIX_SIZE);
+
+    // Sensor management, all on the sensor thread once started
+    private HandlerThread sensorThread;
+    private volatile Handler sensorHandler;
     private SensorManager sensorManager;
-    private Sensor accelerometer;
+    // Fused gravity where the platform has it, else the raw accelerometer smoothed below
+    private Sensor tiltSensor;
+    private boolean fusedGravity;
+    // Tilt samples are batched in the sensor hub FIFO. While rendering, a batch is
+    // handed over once per frame, just before it is needed; at rest the samples only have to
+    // notice the phone being picked up, so they are held for five frames
+    private static final int RENDER_REPORT_LATENCY_US = UPDATE_INTERVAL * 1000;
+    private static final int REST_REPORT_LATENCY_US = 5 * RENDER_REPORT_LATENCY_US;
+    // A batch is drained back to back, so a gap this long means the delivery woke us up
+    private final SensorWakeupCounter sensorWakeups = new SensorWakeupCounter(2_000_000L);
+    // Sample rate follows motion: back to game rate as soon as the tilt moves faster than
+    // 1.5 m/s^2 per second, one step slower after each second below 0.3 m/s^2 per second
+    private static final int[] SENSOR_DELAYS = {
+            SensorManager.SENSOR_DELAY_GAME, SensorManager.SENSOR_DELAY_UI, SensorManager.SENSOR_DELAY_NORMAL};
+    private final SensorRateGovernor rateGovernor =
+            new SensorRateGovernor(2.25f, 0.09f, 1_000_000_000L, 500_000_000L);
+    // Current registration, left off while the sensors sleep whatever the rate or latency asks
+    private final TiltSensorRegistration tiltRegistration = new TiltSensorRegistration(
+            new TiltSensorRegistration.Registrar() {
+                @Override
+                public void register(int rate, int reportLatencyUs) {
+                    registerTiltSensor(rate, reportLatencyUs);
+                }
+
+                @Override
+                public void unregister() {
+                    if (sensorManager != null && tiltSensor != null) {
+                        sensorManager.unregisterListener(BetterBatteryToyService.this, tiltSensor);
+                    }
+                }
+            }, SensorRateGovernor.RATE_FAST, RENDER_REPORT_LATENCY_US);
+    // After this long at rest at the slowest rate the tilt sensor is switched off altogether
+    // and the frozen liquid stays on the matrix until significant motion or a long press
+    private static final long SENSOR_SLEEP_AFTER_MS = 30_000;
+    private final StillnessDetector stillness = new StillnessDetector(SENSOR_SLEEP_AFTER_MS * 1_000_000L);
+    private Sensor significantMotion;
 
     // Battery monitoring
     private BroadcastReceiver batteryReceiver;
-    private int currentBatteryLevel = 50;
-
-    // Enhanced liquid simulation variables
-    private float tiltX = 0f;
-    private float tiltY = 0f;
-    private float[] liquidHeights = new float[MATRIX_SIZE];
-    private float[] liquidVelocities = new float[MATRIX_SIZE]; // Add velocity for physics
-    private float targetWaterLevel = 0.5f;
-    private float gravityX = 0f; // Gravity in X direction (left/right)
-    private float gravityY = 9.8f; // Gravity in Y direction (up/down)
-
-    // Animation variables for startup effect
-    private boolean isAnimating = false;
-    private long animationStartTime = 0;
-    private static final long ANIMATION_DURATION = 600; // 0.6 seconds (faster animation)
-    private float animatedWaterLevel = 0f;
-    private int animatedBatteryLevel = 0;
+
+    // Filtered tilt, published by the sensor thread and read once per frame by the render thread
+    private final TiltSnapshot tiltSnapshot = new TiltSnapshot();
+    private final float[] frameTilt = new float[2];
+    // Smoothing of raw accelerometer samples: the int "tilt_filter" in shared_prefs/settings.xml,
+    // one of TiltFilter.EMA (0), ONE_EURO (1) or KALMAN (2), read each time the toy is opened
+    private static final String SETTINGS = "settings";
+    private static final String KEY_TILT_FILTER = "tilt_filter";
+    // Filter state and its scratch sample, sensor thread only
+    private TiltFilter tiltFilter;
+    private final float[] tiltSample = new float[3];
+    private float filterX = 0f;
+    private float filterY = 0f;
+    // Timestamp of the last filtered sample, and whether the end of its batch is already queued
+    private long filterTime;
+    private boolean batchPending = false;
+
+    // Rendered frames go to the push thread through the triple buffer
+    private final FrameSink matrixSink = new FrameSink() {
+        @Override
+        public int[] beginFrame() {
+            return frameBuffer.backBuffer();
+        }
+
+        @Override
+        public void endFrame() {
+            frameBuffer.publish();
+
+            // Wake the push thread unless it has not yet picked up the previous frame
+            Handler handler = pushHandler;
+            if (handler != null && pushPending.compareAndSet(false, true)) {
+                handler.post(pushRunnable);
+            }
+        }
+    };
+
+    // Simulation and rendering live in a platform-free engine owned by the render thread
+    // Q16.16 integer solver instead of the float one, to compare CPU time on the little cores
+    private static final boolean USE_FIXED_POINT_PHYSICS = false;
+    // Still liquid is looked up from bit masks per level and gravity angle instead of being rasterized
+    private static final boolean USE_LIQUID_ATLAS = true;
+    private final LiquidEngine engine = new LiquidEngine(
+            MATRIX_SIZE, UPDATE_INTERVAL, USE_FIXED_POINT_PHYSICS, USE_LIQUID_ATLAS, matrixSink);
+
+    // Remembers the last pushed frame so unchanged frames skip the IPC (push thread only)
+    private final FrameDiffGate frameGate = new FrameDiffGate(MATRIX_SIZE * MATRIX_SIZE);
+
+    // Debug: record all input to files/sensor-trace.bin for SensorTraceReplayer; pull it with
+    // adb exec-out run-as com.example.betterbattery cat files/sensor-trace.bin > trace.bin
+    private static final boolean RECORD_SENSOR_TRACE = false;
+    private SensorTraceRecorder traceRecorder;
 
     @Override
     public IBinder onBind(Intent intent) {
@@ -78,16 +164,26 @@ public class BetterBatteryToyService extends Service implements SensorEventListe
     }
 
     private void init() {
+        if (RECORD_SENSOR_TRACE) {
+            traceRecorder = new SensorTraceRecorder(new File(getFilesDir(), "sensor-trace.bin"));
+            traceRecorder.start();
+        }
+
         // Initialize Glyph Matrix Manager
         mGM = GlyphMatrixManager.getInstance(getApplicationContext());
         mCallback = new GlyphMatrixManager.Callback() {
             @Override
             public void onServiceConnected(ComponentName componentName) {
                 mGM.register(Glyph.DEVICE_23112); // Phone 3 device ID
-                startBatteryAndSensorMonitoring();
                 startUpdateLoop();
+                startBatteryAndSensorMonitoring();
                 // Start animation when the glyph toy is first opened
-                startAnimation();
+                updateHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        startAnimation();
+                    }
+                });
             }
 
             @Override
@@ -95,12 +191,6 @@ public class BetterBatteryToyService extends Service implements SensorEventListe
             }
         };
         mGM.init(mCallback);
-
-        // Initialize liquid heights - start with water at bottom for normal upright position
-        for (int i = 0; i < MATRIX_SIZE; i++) {
-            liquidHeights[i] = MATRIX_SIZE - 5f; // Start near bottom
-            liquidVelocities[i] = 0f; // Start with no velocity
-        }
     }
 
     private void startBatteryAndSensorMonitoring() {
@@ -111,256 +201,343 @@ public class BetterBatteryToyService extends Service implements SensorEventListe
                 int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
                 int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
                 if (level != -1 && scale != -1) {
-                    currentBatteryLevel = (int) ((level / (float) scale) * 100);
-                    targetWaterLevel = currentBatteryLevel / 100f;
+                    int batteryLevel = (int) ((level / (float) scale) * 100);
+                    if (traceRecorder != null) {
+                        traceRecorder.battery(SystemClock.elapsedRealtimeNanos(), batteryLevel);
+                    }
+                    // Also sent for every voltage or temperature change; only a new level needs frames
+                    if (batteryLevel != engine.batteryLevel()) {
+                        engine.setBatteryLevel(batteryLevel);
+                        resumeUpdateLoop();
+                    }
                 }
             }
         };
-        registerReceiver(batteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        // Delivered on the render thread, which owns the simulation state
+        registerReceiver(batteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED), null, updateHandler);
 
         // Sensor monitoring
-        sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
-        accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
-        if (accelerometer != null) {
-            sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_GAME);
-        }
-    }
-
-    private void startUpdateLoop() {
-        updateHandler = new Handler(Looper.getMainLooper());
-        updateRunnable = new Runnable() {
+        sensorThread = new HandlerThread("GlyphSensor", Process.THREAD_PRIORITY_DISPLAY);
+        sensorThread.start();
+        sensorHandler = new Handler(sensorThread.getLooper());
+        sensorHandler.post(new Runnable() {
             @Override
             public void run() {
-                updateDisplay();
-                updateHandler.postDelayed(this, UPDATE_INTERVAL);
+                startSensors();
             }
-        };
-        updateHandler.post(updateRunnable);
+        });
     }
 
-    private void updateDisplay() {
-        try {
-            // Update animation if running
-            if (isAnimating) {
-                updateAnimation();
+    // Sensor thread: pick the tilt sensor and register for it
+    private void startSensors() {
+        // A batch end still queued when the previous sensor thread quit never ran
+        batchPending = false;
+        sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
+        // The gravity sensor is usually computed in the sensor hub: no jitter, no app-side filtering
+        tiltSensor = sensorManager.getDefaultSensor(Sensor.TYPE_GRAVITY);
+        fusedGravity = tiltSensor != null;
+        if (!fusedGravity) {
+            tiltSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+            tiltFilter = createTiltFilter();
+        }
+        if (tiltSensor != null) {
+            if (tiltSensor.getFifoMaxEventCount() == 0) {
+                Log.d(TAG, tiltSensor.getName() + " has no FIFO, every sample wakes the app");
             }
-
-            // Create the three layers using GlyphMatrixObject.Builder
-            GlyphMatrixObject.Builder liquidBuilder = new GlyphMatrixObject.Builder();
-            GlyphMatrixObject liquidLayer = liquidBuilder
-                    .setImageSource(createLiquidBitmap())
-                    .setPosition(0, 0)
-                    .setBrightness(180)
-                    .build();
-
-            GlyphMatrixObject.Builder contrastBuilder = new GlyphMatrixObject.Builder();
-            GlyphMatrixObject contrastLayer = contrastBuilder
-                    .setImageSource(createContrastBitmap())
-                    .setPosition(0, 0)
-                    .setBrightness(255)
-                    .build();
-
-            // Use animated battery level during animation, otherwise use current battery level
-            int displayLevel = isAnimating ? animatedBatteryLevel : currentBatteryLevel;
-
-            GlyphMatrixObject.Builder textBuilder = new GlyphMatrixObject.Builder();
-            GlyphMatrixObject textLayer = textBuilder
-                    .setText(String.format("%02d%%", displayLevel))
-                    .setPosition(4, 9) // Centered position for 25x25 matrix
-                    .setBrightness(255)
-                    .build();
-
-            // Build the frame with three layers
-            GlyphMatrixFrame.Builder frameBuilder = new GlyphMatrixFrame.Builder();
-            GlyphMatrixFrame frame = frameBuilder
-                    .addLow(liquidLayer)      // Bottom layer - liquid simulation
-                    .addMid(contrastLayer)    // Middle layer - black background for text
-                    .addTop(textLayer)        // Top layer - battery percentage text
-                    .build(getApplicationContext());
-
-            // Display the frame using render() method with exception handling
-            mGM.setMatrixFrame(frame.render());
-        } catch (Exception e) {
-            // Handle any exceptions during frame rendering
-            e.printStackTrace();
+            tiltRegistration.start();
         }
+        // One-shot wake-up sensor in the hub; without it the tilt sensor stays on at the slowest rate
+        significantMotion = sensorManager.getDefaultSensor(Sensor.TYPE_SIGNIFICANT_MOTION);
     }
 
-    private Bitmap createLiquidBitmap() {
-        Bitmap bitmap = Bitmap.createBitmap(MATRIX_SIZE, MATRIX_SIZE, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-
-        // Update liquid simulation based on tilt and battery level
-        updateLiquidSimulation();
-
-        Paint paint = new Paint();
-        paint.setColor(Color.BLUE);
-        paint.setAntiAlias(true);
+    // Sensor thread: the filter picked in the settings, one-euro if unset or unknown
+    private TiltFilter createTiltFilter() {
+        int kind = getSharedPreferences(SETTINGS, Context.MODE_PRIVATE)
+                .getInt(KEY_TILT_FILTER, TiltFilter.ONE_EURO);
+        try {
+            return TiltFilter.create(kind);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, e.getMessage() + ", using one-euro");
+            return TiltFilter.create(TiltFilter.ONE_EURO);
+        }
+    }
 
-        // Draw liquid as a wave pattern within circular boundary
-        float centerX = MATRIX_SIZE / 2f;
-        float centerY = MATRIX_SIZE / 2f;
-        float radius = MATRIX_SIZE / 2f - 1;
+    // Sensor thread: switch the tilt sensor off until significant motion
+    private void sleepSensors() {
+        if (sensorManager == null || significantMotion == null || stillness.isAsleep()) {
+            return;
+        }
+        if (!sensorManager.requestTriggerSensor(motionListener, significantMotion)) {
+            return;
+        }
+        tiltRegistration.stop();
+        stillness.sleep(SystemClock.elapsedRealtimeNanos());
+    }
 
-        // Create liquid shape based on wave heights
-        for (int x = 0; x < MATRIX_SIZE; x++) {
-            float liquidHeight = liquidHeights[x];
+    // Sensor thread: switch the tilt sensor back on at full rate
+    private void wakeSensors() {
+        if (sensorManager == null || !stillness.isAsleep()) {
+            return;
+        }
+        // Already disarmed if it fired, but a long press wakes without it
+        sensorManager.cancelTriggerSensor(motionListener, significantMotion);
+        stillness.wake(SystemClock.elapsedRealtimeNanos());
+        // The first sample after the gap seeds everything afresh
+        rateGovernor.restart();
+        if (tiltFilter != null) {
+            tiltFilter.reset();
+        }
+        tiltRegistration.setRate(SensorRateGovernor.RATE_FAST);
+        tiltRegistration.start();
+    }
 
-            for (int y = 0; y < MATRIX_SIZE; y++) {
-                float distance = (float) Math.sqrt(Math.pow(x - centerX, 2) + Math.pow(y - centerY, 2));
+    private final Runnable wakeSensorsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            wakeSensors();
+        }
+    };
 
-                // Only draw within circular boundary and below liquid surface
-                if (distance <= radius && y >= liquidHeight) {
-                    canvas.drawPoint(x, y, paint);
-                }
+    // Fires once on the main thread when the phone is carried or picked up and moved about
+    private final TriggerEventListener motionListener = new TriggerEventListener() {
+        @Override
+        public void onTrigger(TriggerEvent event) {
+            Handler handler = sensorHandler;
+            if (handler != null) {
+                handler.post(wakeSensorsRunnable);
             }
         }
+    };
 
-        return bitmap;
+    // Sensor thread: stop listening; samples still queued find no sensor manager and are dropped
+    private void stopSensors() {
+        if (sensorManager == null) {
+            return;
+        }
+        tiltRegistration.stop();
+        sensorManager.unregisterListener(this);
+        if (stillness.isAsleep()) {
+            sensorManager.cancelTriggerSensor(motionListener, significantMotion);
+            stillness.wake(SystemClock.elapsedRealtimeNanos());
+        }
+        sensorManager = null;
+        Log.d(TAG, (fusedGravity ? "Gravity" : "Accelerometer") + " samples: " + sensorWakeups.samples()
+                + ", wakeups: " + sensorWakeups.wakeups()
+                + ", samples per wakeup: " + sensorWakeups.samplesPerWakeup()
+                + ", published: " + tiltSnapshot.publishes());
+        Log.d(TAG, "Seconds at game/ui/normal rate: "
+                + rateGovernor.nanosAt(SensorRateGovernor.RATE_FAST) / 1_000_000_000L
+                + "/" + rateGovernor.nanosAt(SensorRateGovernor.RATE_MEDIUM) / 1_000_000_000L
+                + "/" + rateGovernor.nanosAt(SensorRateGovernor.RATE_SLOW) / 1_000_000_000L
+                + ", off: " + stillness.sleepNanos() / 1_000_000_000L
+                + " in " + stillness.sleeps() + " sleeps");
     }
 
-    private Bitmap createContrastBitmap() {
-        Bitmap bitmap = Bitmap.createBitmap(MATRIX_SIZE, MATRIX_SIZE, Bitmap.Config.ARGB_8888);
-        Canvas canvas = new Canvas(bitmap);
-
-        Paint paint = new Paint();
-        paint.setColor(Color.BLACK);
-        paint.setAntiAlias(true);
-
-        // Create a rounded rectangle background for the text with 2px padding
-        float centerX = MATRIX_SIZE / 2f;
-        float centerY = MATRIX_SIZE / 2f;
+    // Sensor thread: (re)register the tilt sensor at the given rate and batching latency
+    private void registerTiltSensor(int rate, int reportLatencyUs) {
+        Handler handler = sensorHandler;
+        if (sensorManager == null || tiltSensor == null || handler == null) {
+            return;
+        }
+        // Registering the same listener twice is ignored, so drop the old registration first
+        sensorManager.unregisterListener(this, tiltSensor);
+        // Callbacks arrive on the sensor thread's looper
+        sensorManager.registerListener(this, tiltSensor, SENSOR_DELAYS[rate], reportLatencyUs, handler);
+    }
 
-        // Approximate text dimensions for percentage display
-        float textWidth = 8f; // Approximate width for "XX%"
-        float textHeight = 6f; // Approximate height
+    private final Runnable renderLatencyRunnable = new Runnable() {
+        @Override
+        public void run() {
+            tiltRegistration.setReportLatencyUs(RENDER_REPORT_LATENCY_US);
+        }
+    };
 
-        RectF rect = new RectF(
-            centerX - textWidth / 2 - 2,
-            centerY - textHeight / 2 - 2,
-            centerX + textWidth / 2 + 2,
-            centerY + textHeight / 2 + 2
-        );
+    private final Runnable restLatencyRunnable = new Runnable() {
+        @Override
+        public void run() {
+            tiltRegistration.setReportLatencyUs(REST_REPORT_LATENCY_US);
+        }
+    };
 
-        canvas.drawRoundRect(rect, 2, 2, paint);
+    private void startUpdateLoop() {
+        renderThread = new HandlerThread("GlyphRender", Process.THREAD_PRIORITY_DISPLAY);
+        renderThread.start();
+        pushThread = new HandlerThread("GlyphPush", Process.THREAD_PRIORITY_DISPLAY);
+        pushThread.start();
 
-        return bitmap;
-    }
+        updateHandler = new Handler(renderThread.getLooper());
+        pushHandler = new Handler(pushThread.getLooper());
 
-    private void updateLiquidSimulation() {
-        // Simplified but working water simulation
-        // Calculate base water level based on battery percentage
-        float baseWaterLevel = MATRIX_SIZE - (targetWaterLevel * (MATRIX_SIZE - 8f)); // Leave 8px margin at top
-
-        // Apply tilt effects for realistic water behavior
-        for (int x = 0; x < MATRIX_SIZE; x++) {
-            // Skip if outside circular boundary
-            float centerX = MATRIX_SIZE / 2f;
-            float distanceFromCenter = Math.abs(x - centerX);
-            if (distanceFromCenter > MATRIX_SIZE / 2f - 1) {
-                liquidHeights[x] = MATRIX_SIZE; // Outside circle, no water
-                continue;
-            }
+        // Fresh connection to the Glyph service, nothing has been pushed yet
+        pushHandler.post(invalidateRunnable);
 
-            // Calculate tilt effect - water flows based on phone orientation
-            float tiltEffect = 0f;
+        updateRunnable = new Runnable() {
+            @Override
+            public void run() {
+                frameScheduler.frameStarted(SystemClock.uptimeMillis());
+                updateDisplay();
 
-            // When phone is upright (tiltY ≈ 0), water should be at bottom
-            // When phone is upside down (tiltY ≈ -9.8), water should flow to top
-            // When tilted left/right (tiltX ≠ 0), water should flow to lower side
+                // Nothing left to animate - stay idle until something changes
+                if (engine.isAtRest(frameTilt[0], frameTilt[1])) {
+                    loopSuspended = true;
+                    switchReportLatency(renderLatencyRunnable, restLatencyRunnable);
+                    return;
+                }
 
-            // Vertical tilt (upside down detection)
-            if (tiltY < -5f) { // Phone is upside down
-                tiltEffect += (tiltY + 5f) * 2f; // Water flows to "new bottom" (top of screen)
-            } else if (tiltY > 5f) { // Phone tilted forward significantly
-                tiltEffect -= (tiltY - 5f) * 1f; // Water flows away from top
+                // Next absolute deadline, so render time does not stretch the period
+                updateHandler.postAtTime(this, frameScheduler.nextDeadline(SystemClock.uptimeMillis()));
             }
+        };
+        updateHandler.postAtTime(updateRunnable, frameScheduler.start(SystemClock.uptimeMillis()));
+    }
 
-            // Horizontal tilt (left/right) - FIXED: Inverted the direction
-            // When tiltX is positive (phone tilted right), water should flow to the right side
-            // When tiltX is negative (phone tilted left), water should flow to the left side
-            float horizontalOffset = (x - centerX) * (-tiltX) * 0.5f; // Added negative sign to fix direction
-            tiltEffect += horizontalOffset;
-
-            // Add wave motion for visual appeal
-            long time = System.currentTimeMillis();
-            float waveOffset = (float) Math.sin((x * 0.4 + time * 0.004)) * 0.8f;
-
-            // Calculate target height for this column
-            float targetHeight = baseWaterLevel + tiltEffect + waveOffset;
-
-            // Smooth interpolation to target
-            liquidHeights[x] += (targetHeight - liquidHeights[x]) * 0.12f;
+    // Render thread: restart the frame loop if it was suspended at rest
+    private void resumeUpdateLoop() {
+        engine.resetRest();
+        Handler handler = updateHandler;
+        if (loopSuspended && handler != null) {
+            loopSuspended = false;
+            switchReportLatency(restLatencyRunnable, renderLatencyRunnable);
+            // Time spent suspended is not simulated
+            engine.resetClock(SystemClock.uptimeMillis());
+            handler.postAtTime(updateRunnable, frameScheduler.start(SystemClock.uptimeMillis()));
+        }
+    }
 
-            // Clamp to valid range
-            liquidHeights[x] = Math.max(0f, Math.min((float)MATRIX_SIZE, liquidHeights[x]));
+    // Render thread: have the sensor thread switch to the other batching latency
+    private void switchReportLatency(Runnable from, Runnable to) {
+        Handler handler = sensorHandler;
+        if (handler != null) {
+            handler.removeCallbacks(from);
+            handler.post(to);
         }
     }
 
-    private void redistributeWater(float targetVolume) {
-        // Calculate current volume
-        float currentVolume = 0;
-        int validColumns = 0;
-
-        for (int x = 0; x < MATRIX_SIZE; x++) {
-            float centerX = MATRIX_SIZE / 2f;
-            float distanceFromCenter = Math.abs(x - centerX);
-            if (distanceFromCenter <= MATRIX_SIZE / 2f - 1) {
-                currentVolume += (MATRIX_SIZE - liquidHeights[x]);
-                validColumns++;
-            }
+    private final Runnable resumeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            resumeUpdateLoop();
         }
+    };
 
-        // Adjust water levels to maintain target volume
-        if (validColumns > 0) {
-            float volumeError = targetVolume - currentVolume;
-            float adjustment = volumeError / validColumns;
+    // Push thread: forget the last pushed frame so the next one always goes out
+    private final Runnable invalidateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            frameGate.invalidate();
+        }
+    };
 
-            for (int x = 0; x < MATRIX_SIZE; x++) {
-                float centerX = MATRIX_SIZE / 2f;
-                float distanceFromCenter = Math.abs(x - centerX);
-                if (distanceFromCenter <= MATRIX_SIZE / 2f - 1) {
-                    liquidHeights[x] -= adjustment * 0.1f; // Gradual adjustment
-                    liquidHeights[x] = Math.max(0, Math.min(MATRIX_SIZE, liquidHeights[x]));
+    // Push thread: send the newest rendered frame to the Glyph service
+    private final Runnable pushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pushPending.set(false);
+            int[] frame = frameBuffer.acquireLatest();
+            GlyphMatrixManager gm = mGM;
+            if (frame == null || gm == null) {
+                return;
+            }
+
+            try {
+                // Only cross the Glyph service IPC when the output actually changed
+                if (frameGate.shouldPush(frame)) {
+                    gm.setMatrixFrame(frame);
                 }
+            } catch (Exception e) {
+                e.printStackTrace();
+                // Frame may not have reached the matrix, so never skip the next one
+                frameGate.invalidate();
             }
         }
-    }
+    };
 
-    private float rollAngle = 0f;
-    private float pitchAngle = 0f;
+    private void updateDisplay() {
+        try {
+            // One consistent sample for the whole frame
+            tiltSnapshot.read(frameTilt);
+            engine.renderFrame(SystemClock.uptimeMillis(), frameTilt[0], frameTilt[1]);
+        } catch (Exception e) {
+            // Handle any exceptions during frame rendering
+            e.printStackTrace();
+        }
+    }
 
     @Override
     public void onSensorChanged(SensorEvent event) {
-        if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
+        int type = event.sensor.getType();
+        // Samples still queued when the sensor was switched off are dropped
+        if ((type == Sensor.TYPE_ACCELEROMETER || type == Sensor.TYPE_GRAVITY) && !stillness.isAsleep()) {
             float ax = event.values[0]; // X: left(+)/right(-)
             float ay = event.values[1]; // Y: up(+)/down(-)
             float az = event.values[2]; // Z: out of screen (+ toward user)
+            sensorWakeups.delivered(SystemClock.elapsedRealtimeNanos());
 
-            // Low-pass filter for legacy vars
-            float alpha = 0.8f;
-            tiltX = alpha * tiltX + (1 - alpha) * ax;
-            tiltY = alpha * tiltY + (1 - alpha) * ay;
+            if (type == Sensor.TYPE_GRAVITY) {
+                if (traceRecorder != null) {
+                    traceRecorder.gravity(event.timestamp, ax, ay, az);
+                }
+                // Already low-passed by the sensor fusion
+                filterX = ax;
+                filterY = ay;
+            } else {
+                if (traceRecorder != null) {
+                    traceRecorder.accelerometer(event.timestamp, ax, ay, az);
+                }
+                // Batched samples arrive back to back in order and step the filter exactly as
+                // if they had come one by one
+                tiltSample[0] = ax;
+                tiltSample[1] = ay;
+                tiltSample[2] = az;
+                tiltFilter.filter(event.timestamp, tiltSample);
+                filterX = tiltSample[0];
+                filterY = tiltSample[1];
+            }
+            filterTime = event.timestamp;
+
+            // A batch is delivered from one looper callback, so a message posted now runs once
+            // the whole batch has been filtered
+            Handler handler = sensorHandler;
+            if (!batchPending && handler != null) {
+                batchPending = true;
+                handler.post(batchEndRunnable);
+            }
+        }
+    }
 
-            // For upright phone (screen facing user, bottom toward earth):
-            // When rotating clockwise/counterclockwise, we need to detect rotation around the Z-axis
-            // - Clockwise rotation: ax becomes more negative (left side goes down)
-            // - Counterclockwise rotation: ax becomes more positive (right side goes down)
+    // Sensor thread: hand the tilt at the end of a batch to the render thread and the rate logic
+    private void endSensorBatch() {
+        batchPending = false;
+        // Switched off since the batch was filtered
+        if (sensorManager == null || stillness.isAsleep()) {
+            return;
+        }
+        tiltSnapshot.publish(filterX, filterY);
 
-            // Calculate roll angle properly for upright orientation
-            // When phone is upright, roll should be based on how much the phone tilts left/right
-            // Use atan2(ax, az) - this gives us the angle of tilt around the Z-axis
-            float newRollAngle = (float) Math.atan2(ax, az);
+        // Slow the sensor down while the phone lies still, speed it up when it moves
+        int rate = rateGovernor.update(filterTime, filterX, filterY);
+        tiltRegistration.setRate(rate);
 
-            // Calculate pitch (forward/back tilt)
-            float newPitchAngle = (float) Math.atan2(-ay, Math.sqrt(ax * ax + az * az));
+        // Wake the render loop once the phone moves away from its rest pose
+        Handler handler = updateHandler;
+        if (loopSuspended && handler != null && engine.movedFromRest(filterX, filterY)) {
+            handler.post(resumeRunnable);
+        }
 
-            // Apply low-pass filter to smooth the angles
-            rollAngle = alpha * rollAngle + (1 - alpha) * newRollAngle;
-            pitchAngle = alpha * pitchAngle + (1 - alpha) * newPitchAngle;
+        // Liquid at rest and the phone on a desk for a while: stop sampling altogether
+        boolean still = loopSuspended && rate == SensorRateGovernor.RATE_SLOW;
+        if (stillness.update(filterTime, still)) {
+            sleepSensors();
         }
     }
 
+    private final Runnable batchEndRunnable = new Runnable() {
+        @Override
+        public void run() {
+            endSensorBatch();
+        }
+    };
+
     @Override
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
         // Not needed for this implementation
@@ -374,12 +551,39 @@ public class BetterBatteryToyService extends Service implements SensorEventListe
                 case GlyphToy.MSG_GLYPH_TOY: {
                     Bundle bundle = msg.getData();
                     String event = bundle.getString(GlyphToy.MSG_GLYPH_TOY_DATA);
+                    if (updateHandler == null) {
+                        break;
+                    }
                     if (GlyphToy.EVENT_CHANGE.equals(event)) {
-                        // Long press detected - restart animation
-                        startAnimation();
+                        if (traceRecorder != null) {
+                            traceRecorder.button(SystemClock.elapsedRealtimeNanos(), SensorTrace.BUTTON_CHANGE);
+                        }
+                        // Long press detected - restart animation, and tilt input if it was off
+                        Handler sensors = sensorHandler;
+                        if (sensors != null) {
+                            sensors.post(wakeSensorsRunnable);
+                        }
+                        updateHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                startAnimation();
+                            }
+                        });
                     } else if (GlyphToy.EVENT_AOD.equals(event)) {
-                        // Always-On Display update (every minute)
-                        updateDisplay();
+                        if (traceRecorder != null) {
+                            traceRecorder.button(SystemClock.elapsedRealtimeNanos(), SensorTrace.BUTTON_AOD);
+                        }
+                        // Always-On Display update (every minute) - always push a frame
+                        Handler push = pushHandler;
+                        if (push != null) {
+                            push.post(invalidateRunnable);
+                        }
+                        updateHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                updateDisplay();
+                            }
+                        });
                     }
                     break;
                 }
@@ -392,10 +596,6 @@ public class BetterBatteryToyService extends Service implements SensorEventListe
     private final Messenger serviceMessenger = new Messenger(serviceHandler);
 
     private void cleanup() {
-        if (updateHandler != null && updateRunnable != null) {
-            updateHandler.removeCallbacks(updateRunnable);
-        }
-
         if (batteryReceiver != null) {
             try {
                 unregisterReceiver(batteryReceiver);
@@ -404,8 +604,53 @@ public class BetterBatteryToyService extends Service implements SensorEventListe
             }
         }
 
-        if (sensorManager != null) {
-            sensorManager.unregisterListener(this);
+        if (sensorHandler != null) {
+            // Unregister on the sensor thread, behind any callback it is still running
+            sensorHandler.removeCallbacksAndMessages(null);
+            sensorHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    stopSensors();
+                }
+            });
+            sensorThread.quitSafely();
+            sensorHandler = null;
+        }
+
+        if (updateHandler != null) {
+            updateHandler.removeCallbacksAndMessages(null);
+            renderThread.quitSafely();
+            updateHandler = null;
+            try {
+                // No frame may reach the push thread once it is being torn down
+                renderThread.join(UPDATE_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Log.d(TAG, "Frames rendered: " + frameScheduler.frames()
+                    + ", skipped late: " + frameScheduler.skippedFrames()
+                    + ", lateness avg/max ms: " + frameScheduler.averageLateness()
+                    + "/" + frameScheduler.maxLateness());
+            Log.d(TAG, "Ripple cycle cache hits/misses: " + engine.rippleCacheHits()
+                    + "/" + engine.rippleCacheMisses());
+        }
+
+        if (pushHandler != null) {
+            pushHandler.removeCallbacksAndMessages(null);
+            pushThread.quitSafely();
+            pushHandler = null;
+            try {
+                // Let an in-flight frame finish before the manager goes away
+                pushThread.join(UPDATE_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Log.d(TAG, "Frames pushed: " + frameGate.pushedFrames()
+                    + ", skipped unchanged: " + frameGate.skippedFrames());
+        }
+
+        if (traceRecorder != null) {
+            traceRecorder.stop();
         }
 
         if (mGM != null) {
@@ -416,39 +661,8 @@ public class BetterBatteryToyService extends Service implements SensorEventListe
         mCallback = null;
     }
 
-    private void updateAnimation() {
-        if (!isAnimating) return;
-
-        long currentTime = System.currentTimeMillis();
-        long elapsed = currentTime - animationStartTime;
-
-        // Calculate linear progress (0.0 to 1.0)
-        float progress = Math.min(1.0f, (float) elapsed / ANIMATION_DURATION);
-
-        // Linear interpolation for battery level
-        animatedBatteryLevel = (int) (progress * currentBatteryLevel);
-
-        // Linear interpolation for water level
-        animatedWaterLevel = progress * (currentBatteryLevel / 100f);
-        targetWaterLevel = animatedWaterLevel;
-
-        // Stop animation when complete
-        if (progress >= 1.0f) {
-            isAnimating = false;
-            animatedBatteryLevel = currentBatteryLevel;
-            targetWaterLevel = currentBatteryLevel / 100f;
-        }
-    }
-
     private void startAnimation() {
-        isAnimating = true;
-        animationStartTime = System.currentTimeMillis();
-        animatedBatteryLevel = 0;
-        animatedWaterLevel = 0f;
-
-        // Reset liquid heights to start empty
-        for (int i = 0; i < MATRIX_SIZE; i++) {
-            liquidHeights[i] = MATRIX_SIZE; // Start with empty liquid (water at bottom = high Y value)
-        }
+        engine.startAnimation(SystemClock.uptimeMillis());
+        resumeUpdateLoop();
     }
 }
@@ -0,0 +1,210 @@
+package com.example.betterbattery;
+
+/**
+ * Integer-only variant of {@link ShallowWaterSolver} in Q16.16 fixed point.
+ *
+ * Same scheme, constants and upwind fluxes as the float solver, but depths,
+ * velocities and the per-face water transfer are {@code int}s with 16
+ * fractional bits. The only float work in {@link #step} is converting the two
+ * gravity inputs; everything else is integer adds, multiplies and shifts.
+ * Velocities are converted to float only when {@link #velocities()} is called,
+ * once per frame rather than once per step. Transfers are computed once per
+ * face and applied to both neighbours, so rounding never creates or destroys
+ * water.
+ *
+ * Ranges: depths stay below the 25px matrix and speeds below {@code 0.5 / dt},
+ * so every intermediate product fits a {@code long} and every stored value an
+ * {@code int} with a wide margin. Resolution is 1/65536 px, far below a pixel.
+ */
+final class FixedPointWaterSolver implements LiquidSolver {
+
+    private static final int FRACTION_BITS = 16;
+    private static final int ONE = 1 << FRACTION_BITS;
+    private static final int HALF = ONE >> 1;
+    // Same 1e-4 px as the float solver
+    private static final int DRY_DEPTH = 7;
+
+    private final int columns;
+    private final float dt;
+    private final int dtFixed;
+    private final int maxSpeed;
+    private final int decay;
+    private final int[] floorRow;
+    private final boolean[] wet;
+    private final int wetColumns;
+    private final int[] depth;
+    private final int[] velocity;
+    private final int[] transfer;
+    // Float copy of the velocities, refreshed by velocities()
+    private final float[] velocityView;
+
+    /**
+     * @param geometry matrix the liquid lives in
+     * @param dt       fixed timestep in seconds
+     */
+    FixedPointWaterSolver(MatrixGeometry geometry, float dt) {
+        this.columns = geometry.size;
+        this.dt = dt;
+        this.dtFixed = toFixed(dt);
+        // No face may move more than half a column's water per step, so depths never go negative
+        this.maxSpeed = toFixed(0.5f / dt);
+        this.decay = toFixed(Math.max(0f, 1f - ShallowWaterSolver.DAMPING * dt));
+        this.floorRow = new int[columns];
+        this.wet = new boolean[columns];
+        this.depth = new int[columns];
+        this.velocity = new int[columns];
+        this.transfer = new int[columns];
+        this.velocityView = new float[columns];
+
+        int wetCount = 0;
+        for (int x = 0; x < columns; x++) {
+            // Row just below the lowest pixel of the column's chord
+            floorRow[x] = (geometry.columnBottom(x) + 1) << FRACTION_BITS;
+            wet[x] = geometry.isLiquidColumn(x) && geometry.columnBottom(x) >= geometry.columnTop(x);
+            if (wet[x]) {
+                wetCount++;
+            }
+        }
+        this.wetColumns = wetCount;
+    }
+
+    static int toFixed(float value) {
+        return Math.round(value * ONE);
+    }
+
+    static float toFloat(int value) {
+        return value / (float) ONE;
+    }
+
+    /** Q16.16 product, rounded to nearest. */
+    static int multiply(int a, int b) {
+        return (int) (((long) a * b + HALF) >> FRACTION_BITS);
+    }
+
+    @Override
+    public float dt() {
+        return dt;
+    }
+
+    @Override
+    public float[] velocities() {
+        for (int x = 0; x < columns; x++) {
+            velocityView[x] = toFloat(velocity[x]);
+        }
+        return velocityView;
+    }
+
+    @Override
+    public float volume() {
+        return toFloat(fixedVolume());
+    }
+
+    @Override
+    public float flatVolume(float surfaceRow) {
+        int surface = toFixed(surfaceRow);
+        int total = 0;
+        for (int x = 0; x < columns; x++) {
+            if (wet[x]) {
+                total += Math.max(0, floorRow[x] - surface);
+            }
+        }
+        return toFloat(total);
+    }
+
+    @Override
+    public void reset(float surfaceRow) {
+        int surface = toFixed(surfaceRow);
+        for (int x = 0; x < columns; x++) {
+            depth[x] = wet[x] ? Math.max(0, floorRow[x] - surface) : 0;
+            velocity[x] = 0;
+        }
+    }
+
+    @Override
+    public void setSurfaceRows(float[] surfaceRows) {
+        for (int x = 0; x < columns; x++) {
+            depth[x] = wet[x] ? Math.max(0, floorRow[x] - toFixed(surfaceRows[x])) : 0;
+            velocity[x] = 0;
+        }
+    }
+
+    /**
+     * Adds or removes water to reach {@code target}. Added water is spread evenly
+     * over the wet columns; removed water is taken in proportion to each depth.
+     */
+    @Override
+    public void setVolume(float target) {
+        int wanted = toFixed(Math.max(0f, target));
+        int current = fixedVolume();
+        // Same 1e-3 px dead band as the float solver
+        if (Math.abs(wanted - current) < 66) {
+            return;
+        }
+
+        if (wanted < current) {
+            for (int x = 0; x < columns; x++) {
+                depth[x] = (int) ((long) depth[x] * wanted / current);
+            }
+        } else {
+            int add = (wanted - current) / wetColumns;
+            for (int x = 0; x < columns; x++) {
+                if (wet[x]) {
+                    depth[x] += add;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void step(float gravityRight, float gravityDown) {
+        int gx = toFixed(gravityRight * ShallowWaterSolver.GRAVITY_SCALE);
+        int gy = toFixed(Math.max(gravityDown, ShallowWaterSolver.MIN_VERTICAL_GRAVITY) * ShallowWaterSolver.GRAVITY_SCALE);
+
+        // Momentum: surface slope and sideways gravity accelerate each face
+        for (int i = 0; i < columns - 1; i++) {
+            if (!wet[i] || !wet[i + 1]) {
+                velocity[i] = 0;
+                transfer[i] = 0;
+                continue;
+            }
+
+            // Surface rows grow downwards, so a lower row number is a higher surface
+            int surfaceLeft = floorRow[i] - depth[i];
+            int surfaceRight = floorRow[i + 1] - depth[i + 1];
+            int u = velocity[i] + multiply(dtFixed, multiply(gy, surfaceRight - surfaceLeft) + gx);
+            u = multiply(u, decay);
+            u = Math.max(-maxSpeed, Math.min(maxSpeed, u));
+
+            // Upwind depth carries the flux; nothing flows out of a dry column
+            int upwind = u > 0 ? depth[i] : depth[i + 1];
+            if (upwind <= DRY_DEPTH) {
+                u = 0;
+            }
+            velocity[i] = u;
+            transfer[i] = multiply(multiply(u, upwind), dtFixed);
+        }
+        velocity[columns - 1] = 0;
+        transfer[columns - 1] = 0;
+
+        // Continuity: what leaves one column enters its neighbour
+        for (int x = 0; x < columns; x++) {
+            int in = x > 0 ? transfer[x - 1] : 0;
+            depth[x] = Math.max(0, depth[x] - (transfer[x] - in));
+        }
+    }
+
+    @Override
+    public void surfaceRows(float[] surfaceRows) {
+        for (int x = 0; x < columns; x++) {
+            surfaceRows[x] = wet[x] ? toFloat(floorRow[x] - depth[x]) : columns;
+        }
+    }
+
+    private int fixedVolume() {
+        int total = 0;
+        for (int x = 0; x < columns; x++) {
+            total += depth[x];
+        }
+        return total;
+    }
+}
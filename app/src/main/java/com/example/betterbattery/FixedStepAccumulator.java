@@ -0,0 +1,60 @@
+package com.example.betterbattery;
+
+/**
+ * Turns variable frame times into a whole number of fixed simulation steps.
+ *
+ * Elapsed time is banked and paid out in {@code step}-sized chunks, so the
+ * simulation advances at the same rate however often (or late) frames are
+ * rendered. The unpaid remainder is exposed as {@link #alpha()} for
+ * interpolating between the last two simulation states. After a long gap
+ * (suspension, a stalled thread) at most {@code maxSteps} are run and the rest
+ * of the time is dropped instead of being caught up; the fraction of a step
+ * left over is kept, so interpolation carries on smoothly after a stall.
+ */
+final class FixedStepAccumulator {
+
+    private final long step;
+    private final int maxSteps;
+
+    private long lastTime;
+    private long accumulated;
+    private boolean started;
+
+    FixedStepAccumulator(long step, int maxSteps) {
+        this.step = step;
+        this.maxSteps = maxSteps;
+    }
+
+    /** Restarts timing at {@code now} with nothing banked. */
+    void reset(long now) {
+        lastTime = now;
+        accumulated = 0;
+        started = true;
+    }
+
+    /** Banks the time since the previous call and returns how many steps to run now. */
+    int advance(long now) {
+        if (!started) {
+            reset(now);
+            return 0;
+        }
+
+        accumulated += Math.max(0, now - lastTime);
+        lastTime = now;
+
+        long steps = accumulated / step;
+        if (steps > maxSteps) {
+            // Too far behind - run the cap and forget the whole steps beyond it
+            steps = maxSteps;
+            accumulated %= step;
+        } else {
+            accumulated -= steps * step;
+        }
+        return (int) steps;
+    }
+
+    /** Fraction of a step banked but not yet simulated, in [0, 1). */
+    float alpha() {
+        return accumulated / (float) step;
+    }
+}
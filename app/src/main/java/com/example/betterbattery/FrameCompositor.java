@@ -0,0 +1,109 @@
+package com.example.betterbattery;
+
+import java.util.Arrays;
+
+/**
+ * Stacks the liquid, contrast and text layers into one Glyph Matrix frame.
+ *
+ * Gives the same frame as the low/mid/top stacking of {@code GlyphMatrixFrame},
+ * but the static layers are kept between frames and the blend is a single pass
+ * over a reused output buffer. Layer order from top to bottom:
+ * <ul>
+ *     <li>text - a bit mask from {@link PercentTextAtlas}, lit pixels win</li>
+ *     <li>contrast - a rounded plate drawn at a fixed level behind the text</li>
+ *     <li>liquid - already rasterized at its layer brightness</li>
+ * </ul>
+ * As in the SDK's {@code combineArrays}, a 0 pixel is transparent: a black plate
+ * or text lets the layer below show through.
+ */
+final class FrameCompositor {
+
+    private final int size;
+    private final int contrastPixel;
+    private final int textPixel;
+    private final long[] contrastMask;
+    private final int[] frame;
+
+    // Text mask is borrowed from the atlas, never copied
+    private long[] textMask;
+    private int textOffset;
+
+    FrameCompositor(int size, int contrastPixel, int textPixel) {
+        this.size = size;
+        this.contrastPixel = contrastPixel;
+        this.textPixel = textPixel;
+        this.contrastMask = new long[(size * size + 63) / 64];
+        this.textMask = new long[contrastMask.length];
+        this.frame = new int[size * size];
+    }
+
+    /**
+     * Rasterizes the contrast plate once. A pixel is covered when its centre lies
+     * inside the rounded rectangle, matching non-antialiased canvas coverage.
+     */
+    void setContrastRoundRect(float left, float top, float right, float bottom, float cornerRadius) {
+        Arrays.fill(contrastMask, 0L);
+        float radiusSquared = cornerRadius * cornerRadius;
+
+        for (int y = 0; y < size; y++) {
+            float py = y + 0.5f;
+            if (py < top || py > bottom) {
+                continue;
+            }
+            for (int x = 0; x < size; x++) {
+                float px = x + 0.5f;
+                if (px < left || px > right) {
+                    continue;
+                }
+
+                // Distance to the nearest point of the inner rectangle handles the corners
+                float cx = Math.max(left + cornerRadius, Math.min(right - cornerRadius, px));
+                float cy = Math.max(top + cornerRadius, Math.min(bottom - cornerRadius, py));
+                float dx = px - cx;
+                float dy = py - cy;
+                if (dx * dx + dy * dy <= radiusSquared) {
+                    int index = y * size + x;
+                    contrastMask[index >>> 6] |= 1L << index;
+                }
+            }
+        }
+    }
+
+    /** Selects the text mask starting at word {@code offset} of {@code mask}. */
+    void setTextMask(long[] mask, int offset) {
+        textMask = mask;
+        textOffset = offset;
+    }
+
+    /**
+     * Blends the cached layers over {@code liquidLayer} and returns the reused
+     * frame buffer, ready for {@code setMatrixFrame(int[])}.
+     */
+    int[] compose(int[] liquidLayer) {
+        return compose(liquidLayer, frame);
+    }
+
+    /** Same as {@link #compose(int[])} but writes into {@code frame}, e.g. a triple buffer slot. */
+    int[] compose(int[] liquidLayer, int[] frame) {
+        long[] text = textMask;
+        int offset = textOffset;
+
+        for (int i = 0; i < frame.length; i++) {
+            long bit = 1L << i;
+            int value;
+            if (textPixel != 0 && (text[offset + (i >>> 6)] & bit) != 0) {
+                value = textPixel;
+            } else if (contrastPixel != 0 && (contrastMask[i >>> 6] & bit) != 0) {
+                value = contrastPixel;
+            } else {
+                value = liquidLayer[i];
+            }
+            frame[i] = value;
+        }
+        return frame;
+    }
+
+    int[] frame() {
+        return frame;
+    }
+}
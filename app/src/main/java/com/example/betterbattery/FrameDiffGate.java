@@ -0,0 +1,69 @@
+package com.example.betterbattery;
+
+import java.util.Arrays;
+
+/**
+ * Skips Glyph Matrix pushes when a frame is identical to the last one sent.
+ *
+ * The fingerprint of a frame is one bit per lit pixel (625 bits in 10 longs)
+ * plus a 64-bit hash of the lit pixel values, so a change in shape is always
+ * detected exactly and a change in brightness alone is detected by the hash.
+ * Nothing is allocated per frame.
+ */
+final class FrameDiffGate {
+
+    private final long[] lastLit;
+    private final long[] currentLit;
+    private long lastValueHash;
+    private boolean hasLastFrame;
+
+    private long pushedFrames;
+    private long skippedFrames;
+
+    FrameDiffGate(int pixelCount) {
+        this.lastLit = new long[(pixelCount + 63) / 64];
+        this.currentLit = new long[lastLit.length];
+    }
+
+    /**
+     * Returns {@code true} if {@code frame} differs from the last frame that was let
+     * through, and records it as the new last frame. Returns {@code false} and counts
+     * a skip otherwise.
+     */
+    boolean shouldPush(int[] frame) {
+        Arrays.fill(currentLit, 0L);
+        long valueHash = 0;
+
+        for (int i = 0; i < frame.length; i++) {
+            int value = frame[i];
+            if (value != 0) {
+                currentLit[i >>> 6] |= 1L << i;
+                valueHash = valueHash * 31 + value;
+            }
+        }
+
+        if (hasLastFrame && valueHash == lastValueHash && Arrays.equals(currentLit, lastLit)) {
+            skippedFrames++;
+            return false;
+        }
+
+        System.arraycopy(currentLit, 0, lastLit, 0, lastLit.length);
+        lastValueHash = valueHash;
+        hasLastFrame = true;
+        pushedFrames++;
+        return true;
+    }
+
+    /** Forgets the last frame so the next one is always pushed, e.g. after a failed push. */
+    void invalidate() {
+        hasLastFrame = false;
+    }
+
+    long pushedFrames() {
+        return pushedFrames;
+    }
+
+    long skippedFrames() {
+        return skippedFrames;
+    }
+}
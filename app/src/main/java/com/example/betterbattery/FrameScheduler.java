@@ -0,0 +1,86 @@
+package com.example.betterbattery;
+
+/**
+ * Fixed-rate frame pacing against absolute deadlines.
+ *
+ * Deadlines are {@code start + n * interval} on the uptime clock, so render time
+ * never stretches the period. A frame whose deadline has already passed when the
+ * next one is scheduled is skipped rather than queued, and how late each frame
+ * started is recorded. Times are passed in by the caller (normally
+ * {@code SystemClock.uptimeMillis()}) so the class runs on the JVM as well.
+ */
+final class FrameScheduler {
+
+    // Lateness of the most recent frames, oldest overwritten first
+    static final int HISTORY_SIZE = 128;
+
+    private final long interval;
+    private final int[] latenessHistory = new int[HISTORY_SIZE];
+
+    private long deadline;
+    private long frames;
+    private long skippedFrames;
+    private long totalLateness;
+    private long maxLateness;
+
+    FrameScheduler(long interval) {
+        this.interval = interval;
+    }
+
+    long interval() {
+        return interval;
+    }
+
+    /** Starts a new run with the first frame due at {@code now}. */
+    long start(long now) {
+        deadline = now;
+        return deadline;
+    }
+
+    /** Records that the frame due at the current deadline began at {@code now}. */
+    void frameStarted(long now) {
+        long lateness = Math.max(0, now - deadline);
+        latenessHistory[(int) (frames % HISTORY_SIZE)] = (int) Math.min(Integer.MAX_VALUE, lateness);
+        frames++;
+        totalLateness += lateness;
+        maxLateness = Math.max(maxLateness, lateness);
+    }
+
+    /**
+     * Advances to the next deadline after the current one and returns it. Deadlines
+     * that are already in the past at {@code now} are skipped and counted.
+     */
+    long nextDeadline(long now) {
+        deadline += interval;
+        if (deadline <= now) {
+            long missed = (now - deadline) / interval + 1;
+            deadline += missed * interval;
+            skippedFrames += missed;
+        }
+        return deadline;
+    }
+
+    long frames() {
+        return frames;
+    }
+
+    long skippedFrames() {
+        return skippedFrames;
+    }
+
+    long maxLateness() {
+        return maxLateness;
+    }
+
+    float averageLateness() {
+        return frames == 0 ? 0f : totalLateness / (float) frames;
+    }
+
+    /** Lateness of the frame {@code age} frames ago (0 = most recent), in clock units. */
+    int lateness(int age) {
+        if (age < 0 || age >= HISTORY_SIZE || age >= frames) {
+            throw new IndexOutOfBoundsException("No lateness recorded for frame " + age + " back");
+        }
+        return latenessHistory[(int) ((frames - 1 - age) % HISTORY_SIZE)];
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.betterbattery;
+
+/**
+ * Destination of the frames a {@link LiquidEngine} renders.
+ *
+ * The engine composes each frame straight into the buffer returned by
+ * {@link #beginFrame()} and calls {@link #endFrame()} once it is complete, so a
+ * sink can hand its own buffers out and never copy. On the device the sink is the
+ * triple buffer feeding the Glyph push thread; tests record the frames instead.
+ */
+interface FrameSink {
+
+    /** Row-major buffer of {@code size * size} LED values to compose the next frame into. */
+    int[] beginFrame();
+
+    /** The buffer from the last {@link #beginFrame()} now holds a complete frame. */
+    void endFrame();
+}
@@ -0,0 +1,46 @@
+package com.example.betterbattery;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free single-producer/single-consumer frame exchange.
+ *
+ * The producer always owns a back buffer and the consumer a front buffer; the
+ * third buffer sits in the middle and is swapped atomically with either side.
+ * The producer never waits for the consumer, and the consumer always gets the
+ * newest complete frame, dropping any it was too slow to take.
+ */
+final class FrameTripleBuffer {
+
+    private static final int INDEX_MASK = 0x3;
+    private static final int FRESH = 0x4;
+
+    private final int[][] buffers;
+    // Index of the middle buffer, plus FRESH when it holds an unread frame
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;   // Producer thread only
+    private int front = 2;  // Consumer thread only
+
+    FrameTripleBuffer(int frameSize) {
+        buffers = new int[][] {new int[frameSize], new int[frameSize], new int[frameSize]};
+    }
+
+    /** Producer: buffer to render the next frame into. */
+    int[] backBuffer() {
+        return buffers[back];
+    }
+
+    /** Producer: hands the back buffer to the consumer and takes the middle one in return. */
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /** Consumer: returns the newest published frame, or {@code null} if nothing new arrived. */
+    int[] acquireLatest() {
+        if ((middle.get() & FRESH) == 0) {
+            return null;
+        }
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return buffers[front];
+    }
+}
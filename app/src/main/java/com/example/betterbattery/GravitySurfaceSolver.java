@@ -0,0 +1,105 @@
+package com.example.betterbattery;
+
+/**
+ * Exact still-water surface for the circular matrix under any gravity direction.
+ *
+ * Still water fills the part of the disc on the gravity side of a straight line
+ * perpendicular to gravity. For a chord at signed distance {@code d} from the
+ * centre the covered area is the circular segment
+ * {@code R^2 acos(d/R) - d sqrt(R^2 - d^2)}; the offset {@code d/R} that covers a
+ * given fill fraction is tabulated once by bisection, so solving a frame is a
+ * table lookup plus one linear span per column with no trigonometry.
+ */
+final class GravitySurfaceSolver {
+
+    static final int LUT_SIZE = 257;
+
+    // In-plane gravity (m/s^2) below this is accelerometer noise with the matrix lying
+    // flat, about 12 degrees from level; the water then settles straight down
+    static final float MIN_GRAVITY = 2f;
+    // Columns whose chord is this close to parallel to gravity are all in or all out
+    private static final float PARALLEL_EPSILON = 1e-4f;
+
+    private final MatrixGeometry geometry;
+    private final float[] offsetByFill = new float[LUT_SIZE];
+
+    GravitySurfaceSolver(MatrixGeometry geometry) {
+        this.geometry = geometry;
+
+        for (int i = 0; i < LUT_SIZE; i++) {
+            float fill = i / (float) (LUT_SIZE - 1);
+            // Segment fraction falls monotonically from 1 at u = -1 to 0 at u = 1
+            double low = -1.0;
+            double high = 1.0;
+            for (int iteration = 0; iteration < 40; iteration++) {
+                double mid = (low + high) / 2;
+                if (segmentFraction(mid) > fill) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            offsetByFill[i] = (float) ((low + high) / 2);
+        }
+    }
+
+    /** Fraction of the disc beyond a chord at {@code u = d / R} from the centre. */
+    static double segmentFraction(double u) {
+        return (Math.acos(u) - u * Math.sqrt(1 - u * u)) / Math.PI;
+    }
+
+    /** Signed chord offset {@code d / R} for a fill fraction in [0, 1], interpolated from the table. */
+    float chordOffset(float fill) {
+        float position = Math.max(0f, Math.min(1f, fill)) * (LUT_SIZE - 1);
+        int index = Math.min(LUT_SIZE - 2, (int) position);
+        float t = position - index;
+        return offsetByFill[index] + (offsetByFill[index + 1] - offsetByFill[index]) * t;
+    }
+
+    /** Surface row of still water filling {@code fill} of the disc with gravity straight down. */
+    float flatSurfaceRow(float fill) {
+        return geometry.centerY + chordOffset(fill) * geometry.radius;
+    }
+
+    /**
+     * Computes, for every column, the rows covered by still water: rows y with
+     * {@code spanTop[x] <= y <= spanBottom[x]}. Spans are not clipped to the circle;
+     * -1 and {@code size} stand for open ends and an empty column gets top > bottom.
+     * In-plane gravity under {@link #MIN_GRAVITY} fills from the bottom.
+     *
+     * @param gravityRight gravity towards the matrix's right edge, m/s^2
+     * @param gravityDown  gravity towards the matrix's bottom edge, m/s^2
+     * @param fill         fraction of the disc covered by water, 0..1
+     */
+    void solve(float gravityRight, float gravityDown, float fill, float[] spanTop, float[] spanBottom) {
+        float nx = 0f;
+        float ny = 1f;
+        float magnitude = (float) Math.sqrt(gravityRight * gravityRight + gravityDown * gravityDown);
+        if (magnitude > MIN_GRAVITY) {
+            nx = gravityRight / magnitude;
+            ny = gravityDown / magnitude;
+        }
+
+        // Water covers points p with (p - centre) . n >= d
+        float d = chordOffset(fill) * geometry.radius;
+        int size = geometry.size;
+
+        for (int x = 0; x < size; x++) {
+            float dx = x - geometry.centerX;
+
+            if (ny > PARALLEL_EPSILON) {
+                spanTop[x] = geometry.centerY + (d - nx * dx) / ny;
+                spanBottom[x] = size;
+            } else if (ny < -PARALLEL_EPSILON) {
+                spanTop[x] = -1f;
+                spanBottom[x] = geometry.centerY + (d - nx * dx) / ny;
+            } else if (nx * dx >= d) {
+                spanTop[x] = -1f;
+                spanBottom[x] = size;
+            } else {
+                spanTop[x] = size;
+                spanBottom[x] = -1f;
+            }
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.example.betterbattery;
+
+/**
+ * Platform-free battery liquid renderer: simulation state, one step per frame
+ * and rasterization into {@code int[]} LED frames.
+ *
+ * The engine knows nothing about Android or the Glyph SDK. Time, gravity and the
+ * battery level come in as plain values, finished frames go out through a
+ * {@link FrameSink}, so the whole hot path runs and can be tested on the JVM.
+ * Gravity is in m/s^2 in matrix orientation (towards its right and bottom edges)
+ * and all times are milliseconds on one monotonic clock.
+ *
+ * Not thread safe: every method except {@link #movedFromRest} belongs to one
+ * render thread.
+ */
+final class LiquidEngine {
+
+    // Shallow-water solver stepped at a fixed 100Hz whatever the frame rate
+    static final int SIM_STEP_MS = 10;
+    private static final int MAX_SIM_STEPS_PER_FRAME = 10; // Drop time beyond 100ms instead of catching up
+
+    // Exact still-water shape for any gravity direction; the height field only
+    // sloshes while gravity points at least 60 degrees towards the matrix bottom
+    private static final float SLOSH_MIN_DOWN = 0.5f;
+
+    static final float WAVE_AMPLITUDE = 0.8f;
+    static final double WAVE_NUMBER = 0.4; // Radians per column
+    static final double WAVE_SPEED = 0.004; // Radians per ms, a 1.57s period
+    // Surface velocity (px/s) below which the height field counts as still
+    private static final float SETTLED_VELOCITY = 0.1f;
+    // Tilt change (m/s^2 on either axis) that ends a rest and re-keys the ripple cache
+    private static final float REST_TILT_TOLERANCE = 0.3f;
+
+    // 48 angles (7.5 degree steps), under 4 KB of liquid atlas per battery level shown
+    private static final int LIQUID_ATLAS_ANGLES = 48;
+    // One ripple period is drawn once per ~49ms phase and then replayed
+    private static final int WAVE_CYCLE_SLOTS = 32;
+
+    private static final long ANIMATION_DURATION = 600; // 0.6 seconds (faster animation)
+
+    // Blue (grey level 85) at layer brightness 180, as the SDK would convert it
+    static final int LIQUID_PIXEL = LiquidRasterizer.ledValue(85, 180);
+    // Black contrast plate, transparent like any 0 pixel in the SDK blend, and white text
+    static final int CONTRAST_PIXEL = LiquidRasterizer.ledValue(0, 255);
+    static final int TEXT_PIXEL = LiquidRasterizer.ledValue(255, 255);
+
+    private final int size;
+    private final boolean useLiquidAtlas;
+    private final FrameSink sink;
+
+    private final MatrixGeometry geometry;
+    private final LiquidSolver liquidSolver;
+    private final FixedStepAccumulator simClock = new FixedStepAccumulator(SIM_STEP_MS, MAX_SIM_STEPS_PER_FRAME);
+    private final GravitySurfaceSolver surfaceSolver;
+    private final LiquidFrameAtlas liquidAtlas;
+    private final WaveCycleCache waveCycleCache;
+    private final SurfaceWave surfaceWave = new SurfaceWave.Table(WAVE_NUMBER, WAVE_AMPLITUDE);
+    private final RestDetector restDetector;
+
+    // Solver surface after the last two steps, interpolated for rendering
+    private final float[] previousSimSurface;
+    private final float[] simSurface;
+    private final float[] stillSurfaceTop;
+    private final float[] stillSurfaceBottom;
+    private boolean sloshing = false;
+
+    // Liquid fills rows liquidHeights[x]..liquidBottoms[x] of each column
+    private final float[] liquidHeights;
+    private final float[] liquidBottoms;
+    private float[] liquidVelocities; // Face velocities owned by the solver, fetched once per simulated frame
+    private final float[] liquidRestHeights; // Surface without the ripple
+    private final float[] liquidRestBottoms;
+    private final float[] liquidRipple; // Wave offset of each column's free surface
+    private float targetWaterLevel = 0.5f; // Fraction of the disc covered by water
+    private int liquidAtlasLevel; // Atlas level of this frame's mask
+    private int liquidAtlasOffset = -1; // Mask for this frame, or -1 to rasterize the surface
+    private boolean rippleTop = true;
+    private int waveSlot = -1; // Phase slot the ripple was drawn at, or -1 when not snapped
+    // Gravity still liquid is drawn for, held while the tilt stays within the rest tolerance
+    private float stillGravityRight;
+    private float stillGravityDown;
+    private boolean stillGravityHeld = false;
+
+    // One rasterizer and buffer reused for every frame; contrast plate and labels are built once
+    private final LiquidRasterizer liquidRasterizer;
+    private final FrameCompositor compositor;
+    private final PercentTextAtlas textAtlas;
+
+    private int batteryLevel = 50;
+
+    // Animation variables for startup effect
+    private boolean isAnimating = false;
+    private long animationStartTime = 0;
+    private int animatedBatteryLevel = 0;
+
+    /**
+     * @param size              matrix width and height in pixels
+     * @param frameInterval     nominal time between frames in ms
+     * @param fixedPointPhysics run the Q16.16 solver instead of the float one
+     * @param useLiquidAtlas    draw still liquid from the mask atlas and ripple cache
+     * @param sink              receives every rendered frame
+     */
+    LiquidEngine(int size, int frameInterval, boolean fixedPointPhysics, boolean useLiquidAtlas, FrameSink sink) {
+        this.size = size;
+        this.useLiquidAtlas = useLiquidAtlas;
+        this.sink = sink;
+
+        geometry = new MatrixGeometry(size);
+        liquidSolver = fixedPointPhysics
+                ? new FixedPointWaterSolver(geometry, SIM_STEP_MS / 1000f)
+                : new ShallowWaterSolver(geometry, SIM_STEP_MS / 1000f);
+        surfaceSolver = new GravitySurfaceSolver(geometry);
+        liquidAtlas = new LiquidFrameAtlas(geometry, surfaceSolver, LIQUID_ATLAS_ANGLES);
+        waveCycleCache = new WaveCycleCache(WAVE_CYCLE_SLOTS, (float) (2 * Math.PI / WAVE_SPEED), size * size);
+        // Stop rendering once the surface has been still for one ripple period, which leaves
+        // the first rest at a level and tilt with its ripple cycle cached for later wake-ups
+        int rippleFrames = (int) Math.ceil(2 * Math.PI / WAVE_SPEED / frameInterval);
+        restDetector = new RestDetector(WAVE_AMPLITUDE + 0.25f, SETTLED_VELOCITY, REST_TILT_TOLERANCE, rippleFrames);
+
+        previousSimSurface = new float[size];
+        simSurface = new float[size];
+        stillSurfaceTop = new float[size];
+        stillSurfaceBottom = new float[size];
+        liquidHeights = new float[size];
+        liquidBottoms = new float[size];
+        liquidVelocities = liquidSolver.velocities();
+        liquidRestHeights = new float[size];
+        liquidRestBottoms = new float[size];
+        liquidRipple = new float[size];
+
+        liquidRasterizer = new LiquidRasterizer(geometry);
+        compositor = createCompositor(size);
+        textAtlas = new PercentTextAtlas(size, 4, 9); // Centered position for 25x25 matrix
+
+        // Start with water at bottom for normal upright position
+        for (int i = 0; i < size; i++) {
+            liquidHeights[i] = size - 5f; // Start near bottom
+            liquidBottoms[i] = size;
+        }
+        resetLiquid(size - 5f); // Still water, no velocity
+    }
+
+    /** Sets the battery level shown once any startup animation has finished. */
+    void setBatteryLevel(int level) {
+        batteryLevel = level;
+        if (!isAnimating) {
+            targetWaterLevel = level / 100f;
+        }
+    }
+
+    int batteryLevel() {
+        return batteryLevel;
+    }
+
+    boolean isAnimating() {
+        return isAnimating;
+    }
+
+    /** Fills the matrix from empty to the battery level, starting at {@code now}. */
+    void startAnimation(long now) {
+        isAnimating = true;
+        animationStartTime = now;
+        animatedBatteryLevel = 0;
+
+        // Reset liquid heights to start empty
+        for (int i = 0; i < size; i++) {
+            liquidHeights[i] = size; // Start with empty liquid (water at bottom = high Y value)
+        }
+        resetLiquid(size);
+    }
+
+    /** Renders the frame for {@code now} and hands it to the sink. */
+    void renderFrame(long now, float gravityRight, float gravityDown) {
+        // Update animation if running
+        if (isAnimating) {
+            updateAnimation(now);
+        }
+
+        // Liquid layer is rasterized straight into a reused brightness buffer
+        int[] liquidLayer = renderLiquid(now, gravityRight, gravityDown);
+
+        // Use animated battery level during animation, otherwise use current battery level
+        int displayLevel = isAnimating ? animatedBatteryLevel : batteryLevel;
+
+        // Text is picked from the pre-rasterized atlas, no formatting per frame
+        compositor.setTextMask(textAtlas.bits(), textAtlas.offset(displayLevel));
+
+        // Blend liquid (low), contrast (mid) and text (top) in one pass
+        compositor.compose(liquidLayer, sink.beginFrame());
+        sink.endFrame();
+    }
+
+    /**
+     * Feeds the last rendered frame to rest detection and returns whether nothing
+     * is left to animate, so the caller may stop rendering.
+     */
+    boolean isAtRest(float gravityRight, float gravityDown) {
+        if (isAnimating) {
+            return false;
+        }
+        return restDetector.update(liquidHeights, liquidRestHeights, liquidVelocities, gravityRight, gravityDown);
+    }
+
+    /** Returns whether gravity moved far enough from the rest pose to need rendering again. Any thread. */
+    boolean movedFromRest(float gravityRight, float gravityDown) {
+        return restDetector.movedFromRest(gravityRight, gravityDown);
+    }
+
+    /** Forgets any quiet period, e.g. when an animation starts or the level changes. */
+    void resetRest() {
+        restDetector.reset();
+    }
+
+    /** Restarts simulation time at {@code now}, so a pause is not simulated. */
+    void resetClock(long now) {
+        simClock.reset(now);
+    }
+
+    int rippleCacheHits() {
+        return waveCycleCache.hits();
+    }
+
+    int rippleCacheMisses() {
+        return waveCycleCache.misses();
+    }
+
+    private int[] renderLiquid(long now, float gravityRight, float gravityDown) {
+        // Lying flat the in-plane gravity is only noise, which must not pick the liquid's direction
+        float min = GravitySurfaceSolver.MIN_GRAVITY;
+        if (gravityRight * gravityRight + gravityDown * gravityDown < min * min) {
+            gravityRight = 0f;
+            gravityDown = min;
+        }
+        holdStillGravity(gravityRight, gravityDown);
+
+        // Still liquid that stays in the same level and tilt bucket replays its ripple cycle
+        if (liquidAtlasOffset >= 0) {
+            int level = Math.round(targetWaterLevel * LiquidFrameAtlas.MAX_LEVEL);
+            int offset = liquidAtlas.offset(level, liquidAtlas.angleIndex(stillGravityRight, stillGravityDown));
+            int[] cached = waveCycleCache.lookup(
+                    stillLiquidKey(level, offset, stillGravityDown >= 0f), waveCycleCache.slot(now));
+            if (cached != null) {
+                // Time spent replaying is not simulated
+                simClock.reset(now);
+                return cached;
+            }
+        }
+
+        // Update liquid simulation based on tilt and battery level
+        updateLiquidSimulation(now, gravityRight, gravityDown);
+
+        // Still liquid comes from the atlas with only the ripple drawn on top
+        if (liquidAtlasOffset >= 0) {
+            int[] layer = liquidRasterizer.rasterize(liquidAtlas.bits(liquidAtlasLevel), liquidAtlasOffset,
+                    liquidRipple, rippleTop, LIQUID_PIXEL);
+            waveCycleCache.store(stillLiquidKey(liquidAtlasLevel, liquidAtlasOffset, rippleTop), waveSlot, layer);
+            return layer;
+        }
+
+        // Draw liquid as a wave pattern within circular boundary into the reused buffer
+        return liquidRasterizer.rasterize(liquidHeights, liquidBottoms, LIQUID_PIXEL);
+    }
+
+    // Sensor noise on the edge of a tilt bucket would otherwise re-key the ripple cache every frame
+    private void holdStillGravity(float gravityRight, float gravityDown) {
+        if (!stillGravityHeld
+                || Math.abs(gravityRight - stillGravityRight) > REST_TILT_TOLERANCE
+                || Math.abs(gravityDown - stillGravityDown) > REST_TILT_TOLERANCE) {
+            stillGravityRight = gravityRight;
+            stillGravityDown = gravityDown;
+            stillGravityHeld = true;
+        }
+    }
+
+    private static FrameCompositor createCompositor(int size) {
+        FrameCompositor compositor = new FrameCompositor(size, CONTRAST_PIXEL, TEXT_PIXEL);
+
+        // Create a rounded rectangle background for the text with 2px padding
+        float centerX = size / 2f;
+        float centerY = size / 2f;
+
+        // Approximate text dimensions for percentage display
+        float textWidth = 8f; // Approximate width for "XX%"
+        float textHeight = 6f; // Approximate height
+
+        compositor.setContrastRoundRect(
+            centerX - textWidth / 2 - 2,
+            centerY - textHeight / 2 - 2,
+            centerX + textWidth / 2 + 2,
+            centerY + textHeight / 2 + 2,
+            2
+        );
+
+        return compositor;
+    }
+
+    private static long stillLiquidKey(int atlasLevel, int atlasOffset, boolean rippleTop) {
+        return ((long) atlasLevel << 32) | ((long) atlasOffset << 1) | (rippleTop ? 1 : 0);
+    }
+
+    private void updateLiquidSimulation(long now, float gravityRight, float gravityDown) {
+        // Battery level is the fraction of the disc covered by water
+        float fill = targetWaterLevel;
+        float gravity = (float) Math.sqrt(gravityRight * gravityRight + gravityDown * gravityDown);
+
+        // Where still water would sit for this gravity and fill level
+        surfaceSolver.solve(gravityRight, gravityDown, fill, stillSurfaceTop, stillSurfaceBottom);
+
+        if (gravityDown > SLOSH_MIN_DOWN * gravity) {
+            if (!sloshing) {
+                // Start sloshing from the exact still surface so nothing jumps
+                liquidSolver.setSurfaceRows(stillSurfaceTop);
+                liquidSolver.surfaceRows(simSurface);
+                System.arraycopy(simSurface, 0, previousSimSurface, 0, size);
+                simClock.reset(now);
+                sloshing = true;
+            }
+
+            // Battery level decides how much water there is, the solver decides where it goes
+            liquidSolver.setVolume(liquidSolver.flatVolume(surfaceSolver.flatSurfaceRow(fill)));
+
+            // Run as many fixed steps as real time demands, independent of the frame rate
+            int steps = simClock.advance(now);
+            for (int step = 0; step < steps; step++) {
+                System.arraycopy(simSurface, 0, previousSimSurface, 0, size);
+                liquidSolver.step(gravityRight, gravityDown);
+                liquidSolver.surfaceRows(simSurface);
+            }
+
+            // Render between the last two states by the fraction of a step not yet simulated
+            float alpha = simClock.alpha();
+            for (int x = 0; x < size; x++) {
+                liquidRestHeights[x] = previousSimSurface[x] + (simSurface[x] - previousSimSurface[x]) * alpha;
+                liquidRestBottoms[x] = size;
+            }
+        } else {
+            if (sloshing) {
+                // Park the height field at rest while the water lies against a side or the top
+                liquidSolver.setSurfaceRows(stillSurfaceTop);
+                sloshing = false;
+            }
+            System.arraycopy(stillSurfaceTop, 0, liquidRestHeights, 0, size);
+            System.arraycopy(stillSurfaceBottom, 0, liquidRestBottoms, 0, size);
+        }
+
+        liquidVelocities = liquidSolver.velocities();
+
+        // Once the height field has settled it matches the still surface, which the atlas already holds
+        liquidAtlasOffset = -1;
+        if (useLiquidAtlas && (!sloshing || isSettled(liquidVelocities))) {
+            liquidAtlasLevel = Math.round(fill * LiquidFrameAtlas.MAX_LEVEL);
+            liquidAtlasOffset = liquidAtlas.offset(liquidAtlasLevel,
+                    liquidAtlas.angleIndex(stillGravityRight, stillGravityDown));
+        }
+
+        // Ripple the free surface, which faces up unless the phone is upside down
+        rippleTop = stillGravityDown >= 0f;
+        // Still liquid snaps the ripple to a cache phase so the frame can be replayed next cycle
+        double wavePhase = now * WAVE_SPEED;
+        waveSlot = -1;
+        if (liquidAtlasOffset >= 0) {
+            waveSlot = waveCycleCache.slot(now);
+            wavePhase = waveCycleCache.phase(waveSlot);
+        }
+
+        // Add wave motion for visual appeal
+        surfaceWave.offsets(wavePhase, liquidRipple);
+
+        for (int x = 0; x < size; x++) {
+            // Skip if outside circular boundary
+            if (!geometry.isLiquidColumn(x)) {
+                liquidHeights[x] = size; // Outside circle, no water
+                liquidBottoms[x] = size;
+                continue;
+            }
+
+            float waveOffset = liquidRipple[x];
+
+            if (rippleTop) {
+                liquidHeights[x] = Math.max(0f, Math.min((float) size, liquidRestHeights[x] + waveOffset));
+                liquidBottoms[x] = liquidRestBottoms[x];
+            } else {
+                liquidHeights[x] = liquidRestHeights[x];
+                liquidBottoms[x] = Math.max(-1f, Math.min((float) size, liquidRestBottoms[x] + waveOffset));
+            }
+        }
+    }
+
+    private static boolean isSettled(float[] velocities) {
+        for (float velocity : velocities) {
+            if (Math.abs(velocity) > SETTLED_VELOCITY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resetLiquid(float surfaceRow) {
+        liquidSolver.reset(surfaceRow);
+        liquidSolver.surfaceRows(simSurface);
+        System.arraycopy(simSurface, 0, previousSimSurface, 0, size);
+        System.arraycopy(simSurface, 0, liquidRestHeights, 0, size);
+    }
+
+    private void updateAnimation(long now) {
+        if (!isAnimating) return;
+
+        long elapsed = now - animationStartTime;
+
+        // Calculate linear progress (0.0 to 1.0)
+        float progress = Math.min(1.0f, (float) elapsed / ANIMATION_DURATION);
+
+        // Linear interpolation for battery level
+        animatedBatteryLevel = (int) (progress * batteryLevel);
+
+        // Linear interpolation for water level
+        targetWaterLevel = progress * (batteryLevel / 100f);
+
+        // Stop animation when complete
+        if (progress >= 1.0f) {
+            isAnimating = false;
+            animatedBatteryLevel = batteryLevel;
+            targetWaterLevel = batteryLevel / 100f;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.betterbattery;
+
+/**
+ * Bit-packed still-liquid masks for every battery level and a ring of gravity angles.
+ *
+ * At rest the liquid shape depends only on the fill level (0..100) and the
+ * direction of gravity, so the toy can look it up instead of solving and
+ * rasterizing it each frame. Angles are quantized to {@code angles} steps around
+ * the full circle; masks are built on first use from {@link GravitySurfaceSolver}
+ * and kept. Storage is allocated one level at a time, {@code angles} masks of
+ * 80 bytes (under 4 KB at 48 angles), when a mask of that level is first used,
+ * so a toy sitting at one battery level holds a single slice instead of all 101.
+ *
+ * Not thread safe; owned by the render thread.
+ */
+final class LiquidFrameAtlas {
+
+    static final int MIN_LEVEL = 0;
+    static final int MAX_LEVEL = 100;
+
+    private static final double GRAVITY = 9.81;
+
+    private final MatrixGeometry geometry;
+    private final GravitySurfaceSolver solver;
+    private final int angles;
+    private final int wordsPerMask;
+    // Mask words of each level, null until a mask of that level is first used
+    private final long[][] bits;
+    private final boolean[] built;
+    private final float[] spanTop;
+    private final float[] spanBottom;
+
+    LiquidFrameAtlas(MatrixGeometry geometry, GravitySurfaceSolver solver, int angles) {
+        this.geometry = geometry;
+        this.solver = solver;
+        this.angles = angles;
+        this.wordsPerMask = (geometry.size * geometry.size + 63) / 64;
+        this.bits = new long[MAX_LEVEL + 1][];
+        this.built = new boolean[(MAX_LEVEL + 1) * angles];
+        this.spanTop = new float[geometry.size];
+        this.spanBottom = new float[geometry.size];
+    }
+
+    /**
+     * Nearest quantized angle for a gravity vector; gravity weaker than
+     * {@link GravitySurfaceSolver#MIN_GRAVITY} counts as straight down.
+     */
+    int angleIndex(float gravityRight, float gravityDown) {
+        float min = GravitySurfaceSolver.MIN_GRAVITY;
+        if (gravityRight * gravityRight + gravityDown * gravityDown < min * min) {
+            return 0;
+        }
+        // 0 is straight down, growing towards the matrix's right edge
+        double angle = Math.atan2(gravityRight, gravityDown);
+        int index = (int) Math.round(angle * angles / (2 * Math.PI));
+        return ((index % angles) + angles) % angles;
+    }
+
+    /**
+     * Bit storage of the masks of {@code level} (clamped to 0..100), see
+     * {@link #offset(int, int)}; allocated on first use.
+     */
+    long[] bits(int level) {
+        level = clampLevel(level);
+        if (bits[level] == null) {
+            bits[level] = new long[wordsPerMask * angles];
+        }
+        return bits[level];
+    }
+
+    /**
+     * Index in {@link #bits(int)} of the first word of the mask for {@code level}
+     * (clamped to 0..100) at quantized angle {@code angleIndex}, building the mask
+     * if this is its first use.
+     */
+    int offset(int level, int angleIndex) {
+        level = clampLevel(level);
+        int mask = level * angles + angleIndex;
+        if (!built[mask]) {
+            build(level, angleIndex);
+            built[mask] = true;
+        }
+        return angleIndex * wordsPerMask;
+    }
+
+    /** Number of levels whose storage has been allocated. */
+    int allocatedLevels() {
+        int count = 0;
+        for (long[] level : bits) {
+            if (level != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Number of masks built so far. */
+    int builtMasks() {
+        int count = 0;
+        for (boolean mask : built) {
+            if (mask) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int clampLevel(int level) {
+        return Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, level));
+    }
+
+    private void build(int level, int angleIndex) {
+        double angle = angleIndex * 2 * Math.PI / angles;
+        // Full gravity in the mask's direction, well above the solver's lying-flat threshold
+        solver.solve((float) (GRAVITY * Math.sin(angle)), (float) (GRAVITY * Math.cos(angle)),
+                level / (float) MAX_LEVEL, spanTop, spanBottom);
+
+        // Same clipping as LiquidRasterizer.rasterize(spanTop, spanBottom, value)
+        long[] bits = bits(level);
+        int size = geometry.size;
+        int offset = angleIndex * wordsPerMask;
+        for (int x = 0; x < size; x++) {
+            if (!geometry.isLiquidColumn(x)) {
+                continue;
+            }
+            int top = Math.max(geometry.columnTop(x), (int) Math.ceil(spanTop[x]));
+            int bottom = Math.min(geometry.columnBottom(x), (int) Math.floor(spanBottom[x]));
+            for (int y = top; y <= bottom; y++) {
+                int index = y * size + x;
+                bits[offset + (index >>> 6)] |= 1L << index;
+            }
+        }
+    }
+}
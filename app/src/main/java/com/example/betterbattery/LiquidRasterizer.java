@@ -0,0 +1,122 @@
+package com.example.betterbattery;
+
+import java.util.Arrays;
+
+/**
+ * Writes the liquid shape straight into a Glyph Matrix brightness buffer.
+ *
+ * The buffer is row-major ({@code index = y * size + x}) with values in the
+ * 0..{@link #MAX_BRIGHTNESS} range expected by {@code GlyphMatrixManager.setMatrixFrame(int[])}.
+ * One instance owns one buffer which is reused for every frame, so rendering
+ * does not allocate.
+ */
+final class LiquidRasterizer {
+
+    // Highest value a single Glyph Matrix LED accepts
+    static final int MAX_BRIGHTNESS = 2047;
+
+    private final MatrixGeometry geometry;
+    private final int size;
+    private final int[] buffer;
+
+    LiquidRasterizer(MatrixGeometry geometry) {
+        this.geometry = geometry;
+        this.size = geometry.size;
+        this.buffer = new int[size * size];
+    }
+
+    /**
+     * Converts an 8-bit grey level drawn with an 8-bit layer brightness into an
+     * LED value, using the same integer math as the Glyph SDK bitmap conversion.
+     */
+    static int ledValue(int grey, int brightness) {
+        int value = grey * MAX_BRIGHTNESS / 255;
+        return value * brightness / 255;
+    }
+
+    /**
+     * Fills the internal buffer with the liquid described by {@code liquidHeights}
+     * (the surface row for each column) and returns it. Pixels inside the circular
+     * boundary and on or below the surface get {@code value}, everything else 0.
+     */
+    int[] rasterize(float[] liquidHeights, int value) {
+        Arrays.fill(buffer, 0);
+
+        for (int x = 0; x < size; x++) {
+            // Clip the column's chord to the first row at or below the surface
+            int top = Math.max(geometry.columnTop(x), (int) Math.ceil(liquidHeights[x]));
+            fillColumn(x, top, geometry.columnBottom(x), value);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Same as {@link #rasterize(float[], int)} for liquid that may not rest on the
+     * bottom of the matrix: column x is filled on rows {@code spanTop[x]..spanBottom[x]}
+     * inside the circular boundary.
+     */
+    int[] rasterize(float[] spanTop, float[] spanBottom, int value) {
+        Arrays.fill(buffer, 0);
+
+        for (int x = 0; x < size; x++) {
+            int top = Math.max(geometry.columnTop(x), (int) Math.ceil(spanTop[x]));
+            int bottom = Math.min(geometry.columnBottom(x), (int) Math.floor(spanBottom[x]));
+            fillColumn(x, top, bottom, value);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Draws a pre-built liquid mask (see {@link LiquidFrameAtlas}) starting at word
+     * {@code offset} of {@code mask}, with the free edge of every wet column moved by
+     * {@code ripple[x]} rows, rounded: the top edge when {@code rippleTop}, the bottom
+     * edge otherwise. The moved edge stays inside the circular boundary.
+     */
+    int[] rasterize(long[] mask, int offset, float[] ripple, boolean rippleTop, int value) {
+        Arrays.fill(buffer, 0);
+
+        for (int x = 0; x < size; x++) {
+            int chordTop = geometry.columnTop(x);
+            int chordBottom = geometry.columnBottom(x);
+
+            // Still liquid is convex, so each column is lit on one run of rows
+            int top = chordTop;
+            while (top <= chordBottom && !isSet(mask, offset, top * size + x)) {
+                top++;
+            }
+            if (top > chordBottom) {
+                continue;
+            }
+            int bottom = chordBottom;
+            while (!isSet(mask, offset, bottom * size + x)) {
+                bottom--;
+            }
+
+            int shift = Math.round(ripple[x]);
+            if (rippleTop) {
+                top = Math.max(chordTop, top + shift);
+            } else {
+                bottom = Math.min(chordBottom, bottom + shift);
+            }
+            fillColumn(x, top, bottom, value);
+        }
+
+        return buffer;
+    }
+
+    private static boolean isSet(long[] mask, int offset, int index) {
+        return (mask[offset + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    private void fillColumn(int x, int top, int bottom, int value) {
+        for (int y = top; y <= bottom; y++) {
+            buffer[y * size + x] = value;
+        }
+    }
+
+    int[] buffer() {
+        return buffer;
+    }
+}
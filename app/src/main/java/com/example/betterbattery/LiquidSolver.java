@@ -0,0 +1,46 @@
+package com.example.betterbattery;
+
+/**
+ * Height-field liquid simulation stepped at a fixed timestep.
+ *
+ * Rows grow downwards and every liquid column is described by the row of its
+ * surface. Units are matrix pixels and seconds; gravity is given in m/s^2 in
+ * matrix orientation. Implementations must not allocate after construction.
+ */
+interface LiquidSolver {
+
+    /** Fixed timestep of {@link #step} in seconds. */
+    float dt();
+
+    /**
+     * Face velocities in px/s as of the last mutating call, in an array that is
+     * reused and may only be brought up to date by this call; read-only for callers.
+     */
+    float[] velocities();
+
+    /** Total water volume in pixels. */
+    float volume();
+
+    /** Volume of still water whose surface lies at {@code surfaceRow}. */
+    float flatVolume(float surfaceRow);
+
+    /** Puts still water at {@code surfaceRow} in every column. */
+    void reset(float surfaceRow);
+
+    /** Puts still water with the given surface row in each column, e.g. a tilted rest surface. */
+    void setSurfaceRows(float[] surfaceRows);
+
+    /** Adds or removes water to reach {@code target}. */
+    void setVolume(float target);
+
+    /**
+     * Advances the simulation by one fixed timestep.
+     *
+     * @param gravityRight gravity towards the matrix's right edge, m/s^2
+     * @param gravityDown  gravity towards the matrix's bottom edge, m/s^2
+     */
+    void step(float gravityRight, float gravityDown);
+
+    /** Writes the surface row of every column into {@code surfaceRows}; dry walls get the matrix size. */
+    void surfaceRows(float[] surfaceRows);
+}
@@ -0,0 +1,89 @@
+package com.example.betterbattery;
+
+/**
+ * Precomputed geometry of the circular Glyph Matrix.
+ *
+ * The disc never changes, so the inside-circle test for every pixel and the
+ * vertical chord of every column are computed once here instead of calling
+ * {@code Math.sqrt} per pixel per frame. The per-pixel mask is bit-packed into
+ * longs, the chord extents into one byte per column.
+ */
+final class MatrixGeometry {
+
+    final int size;
+    final float centerX;
+    final float centerY;
+    final float radius;
+
+    private final long[] insideMask;
+    private final byte[] columnTop;
+    private final byte[] columnBottom;
+    private final boolean[] liquidColumn;
+    private final int liquidColumnCount;
+
+    MatrixGeometry(int size) {
+        this.size = size;
+        this.centerX = size / 2f;
+        this.centerY = size / 2f;
+        this.radius = size / 2f - 1;
+        this.insideMask = new long[(size * size + 63) / 64];
+        this.columnTop = new byte[size];
+        this.columnBottom = new byte[size];
+        this.liquidColumn = new boolean[size];
+
+        int columns = 0;
+        for (int x = 0; x < size; x++) {
+            // A disc is convex, so each column's inside pixels form one run
+            int top = size;
+            int bottom = -1;
+            float dx = x - centerX;
+            for (int y = 0; y < size; y++) {
+                float dy = y - centerY;
+                if ((float) Math.sqrt(dx * dx + dy * dy) <= radius) {
+                    int index = y * size + x;
+                    insideMask[index >>> 6] |= 1L << index;
+                    top = Math.min(top, y);
+                    bottom = Math.max(bottom, y);
+                }
+            }
+            columnTop[x] = (byte) top;
+            columnBottom[x] = (byte) bottom;
+
+            // The simulation treats a column as wet by its centre distance alone
+            liquidColumn[x] = Math.abs(dx) <= radius;
+            if (liquidColumn[x]) {
+                columns++;
+            }
+        }
+        this.liquidColumnCount = columns;
+    }
+
+    /** Returns whether pixel (x, y) lies inside the circular boundary. */
+    boolean isInside(int x, int y) {
+        return isInside(y * size + x);
+    }
+
+    /** Returns whether the row-major pixel {@code index} lies inside the circular boundary. */
+    boolean isInside(int index) {
+        return (insideMask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /** First row of column {@code x} inside the circle, or {@code size} if the column is empty. */
+    int columnTop(int x) {
+        return columnTop[x];
+    }
+
+    /** Last row of column {@code x} inside the circle, or -1 if the column is empty. */
+    int columnBottom(int x) {
+        return columnBottom[x];
+    }
+
+    /** Returns whether the liquid simulation keeps a height for column {@code x}. */
+    boolean isLiquidColumn(int x) {
+        return liquidColumn[x];
+    }
+
+    int liquidColumnCount() {
+        return liquidColumnCount;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.betterbattery;
+
+/**
+ * Pre-rasterized "00%".."100%" labels for the Glyph Matrix.
+ *
+ * Every label the toy can show is drawn once, with the same dot font and letter
+ * spacing the Glyph SDK uses for {@code GlyphMatrixObject.Builder.setText}, into a
+ * full-frame bit mask. All 101 masks share one {@code long[]} (about 8 KB), so
+ * picking a label at render time is an offset lookup with no formatting or
+ * allocation.
+ */
+final class PercentTextAtlas {
+
+    static final int MIN_LEVEL = 0;
+    static final int MAX_LEVEL = 100;
+
+    // Dot font of the Glyph SDK (letter_0..letter_9, letter_percent), one row per entry
+    private static final String[] DIGITS = {
+            "0000,0110,1001,1001,1001,0110",
+            "000,001,011,101,001,001",
+            "0000,1110,0001,0110,1000,1111",
+            "0000,1110,0001,0111,0001,1110",
+            "0000,1001,1001,0111,0001,0001",
+            "0000,1111,1000,1110,0001,1110",
+            "0000,0110,1000,1110,1001,0110",
+            "0000,1110,0001,0001,0001,0001",
+            "0000,0110,1001,0110,1001,0110",
+            "0000,1110,1001,1111,0001,1110",
+    };
+    private static final String PERCENT = "0000,0000,1001,0010,0100,1001";
+
+    private final int size;
+    private final int wordsPerLabel;
+    private final long[] bits;
+
+    /** Builds all labels with their top-left corner at ({@code originX}, {@code originY}). */
+    PercentTextAtlas(int size, int originX, int originY) {
+        this.size = size;
+        this.wordsPerLabel = (size * size + 63) / 64;
+        this.bits = new long[wordsPerLabel * (MAX_LEVEL + 1)];
+
+        for (int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+            int offset = level * wordsPerLabel;
+            int x = originX;
+
+            // Same digits as String.format("%02d%%", level)
+            if (level >= 100) {
+                x = drawLetter(DIGITS[level / 100], offset, x, originY);
+            }
+            x = drawLetter(DIGITS[(level / 10) % 10], offset, x, originY);
+            x = drawLetter(DIGITS[level % 10], offset, x, originY);
+            drawLetter(PERCENT, offset, x, originY);
+        }
+    }
+
+    /** Shared bit storage of all labels, see {@link #offset(int)}. */
+    long[] bits() {
+        return bits;
+    }
+
+    /** Index of the first word of the label for {@code level}, clamped to 0..100. */
+    int offset(int level) {
+        return Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, level)) * wordsPerLabel;
+    }
+
+    /** Returns whether row-major pixel {@code index} is lit in the label for {@code level}. */
+    boolean isLit(int level, int index) {
+        return (bits[offset(level) + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /** Draws one letter and returns the x position of the next one (letter width plus 1px gap). */
+    private int drawLetter(String letter, int offset, int originX, int originY) {
+        String[] rows = letter.split(",");
+        for (int row = 0; row < rows.length; row++) {
+            for (int column = 0; column < rows[row].length(); column++) {
+                if (rows[row].charAt(column) != '1') {
+                    continue;
+                }
+                int x = originX + column;
+                int y = originY + row;
+                if (x >= 0 && x < size && y >= 0 && y < size) {
+                    int index = y * size + x;
+                    bits[offset + (index >>> 6)] |= 1L << index;
+                }
+            }
+        }
+        return originX + rows[0].length() + 1;
+    }
+}
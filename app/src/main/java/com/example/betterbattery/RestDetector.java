@@ -0,0 +1,61 @@
+package com.example.betterbattery;
+
+/**
+ * Decides when the liquid has come to rest so the render loop can stop ticking.
+ *
+ * The liquid is at rest once, for {@code quietFrames} frames in a row, every
+ * column is within {@code heightTolerance} of its rest height (the target
+ * without the decorative ripple), no column is moving faster than
+ * {@code velocityTolerance}, and the filtered tilt has stayed within
+ * {@code tiltTolerance} of where it was when the quiet period began.
+ *
+ * {@link #update} and {@link #reset} belong to the render thread;
+ * {@link #movedFromRest} may be called from the sensor thread.
+ */
+final class RestDetector {
+
+    private final float heightTolerance;
+    private final float velocityTolerance;
+    private final float tiltTolerance;
+    private final int quietFrames;
+
+    private int quietCount;
+    private volatile float restTiltX;
+    private volatile float restTiltY;
+
+    RestDetector(float heightTolerance, float velocityTolerance, float tiltTolerance, int quietFrames) {
+        this.heightTolerance = heightTolerance;
+        this.velocityTolerance = velocityTolerance;
+        this.tiltTolerance = tiltTolerance;
+        this.quietFrames = quietFrames;
+    }
+
+    /** Feeds one simulated frame and returns whether the liquid is now at rest. */
+    boolean update(float[] heights, float[] restHeights, float[] velocities, float tiltX, float tiltY) {
+        if (quietCount == 0 || movedFromRest(tiltX, tiltY)) {
+            // Start a new quiet period from the current tilt
+            restTiltX = tiltX;
+            restTiltY = tiltY;
+            quietCount = 0;
+        }
+
+        boolean settled = true;
+        for (int x = 0; settled && x < heights.length; x++) {
+            settled = Math.abs(heights[x] - restHeights[x]) <= heightTolerance
+                    && Math.abs(velocities[x]) <= velocityTolerance;
+        }
+
+        quietCount = settled ? quietCount + 1 : 0;
+        return quietCount >= quietFrames;
+    }
+
+    /** Returns whether the tilt has moved far enough from the rest tilt to need rendering again. */
+    boolean movedFromRest(float tiltX, float tiltY) {
+        return Math.abs(tiltX - restTiltX) > tiltTolerance || Math.abs(tiltY - restTiltY) > tiltTolerance;
+    }
+
+    /** Forgets any quiet period, e.g. when an animation starts or the level changes. */
+    void reset() {
+        quietCount = 0;
+    }
+}
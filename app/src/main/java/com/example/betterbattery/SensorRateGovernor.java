@@ -0,0 +1,108 @@
+package com.example.betterbattery;
+
+/**
+ * Picks the accelerometer rate from how much the phone has been moving recently.
+ *
+ * Motion energy is the squared speed of the filtered tilt, in (m/s^2 per second)^2,
+ * averaged over {@code energyTimeConstantNanos}. Energy above {@code moveEnergy}
+ * jumps straight back to {@link #RATE_FAST} so the liquid reacts at once; energy
+ * that stays below {@code stillEnergy} for {@code holdNanos} steps one rate down,
+ * and stays there for another {@code holdNanos} before the next step. In between
+ * the rate is kept, which is the hysteresis band that stops it flapping.
+ *
+ * Rates are indices, not sensor delays, so the caller maps them onto
+ * {@code SENSOR_DELAY_GAME}, {@code SENSOR_DELAY_UI} and {@code SENSOR_DELAY_NORMAL}.
+ * Time spent at each rate is counted from the sample timestamps. Not thread safe;
+ * feed it from the sensor callback.
+ */
+final class SensorRateGovernor {
+
+    static final int RATE_FAST = 0;
+    static final int RATE_MEDIUM = 1;
+    static final int RATE_SLOW = 2;
+    static final int RATE_COUNT = 3;
+
+    private final float moveEnergy;
+    private final float stillEnergy;
+    private final long holdNanos;
+    private final long energyTimeConstantNanos;
+
+    private final long[] nanosAtRate = new long[RATE_COUNT];
+    private int rate = RATE_FAST;
+    private float energy;
+    private boolean started;
+    private long lastTime;
+    private float lastTiltX;
+    private float lastTiltY;
+    // Start of the current still period, or of the time at the current rate if later
+    private long stillSince;
+
+    SensorRateGovernor(float moveEnergy, float stillEnergy, long holdNanos, long energyTimeConstantNanos) {
+        this.moveEnergy = moveEnergy;
+        this.stillEnergy = stillEnergy;
+        this.holdNanos = holdNanos;
+        this.energyTimeConstantNanos = energyTimeConstantNanos;
+    }
+
+    /** Feeds one filtered tilt sample and returns the rate to run at from now on. */
+    int update(long timeNanos, float tiltX, float tiltY) {
+        if (!started) {
+            started = true;
+            lastTime = timeNanos;
+            stillSince = timeNanos;
+            lastTiltX = tiltX;
+            lastTiltY = tiltY;
+            return rate;
+        }
+
+        long dt = timeNanos - lastTime;
+        if (dt <= 0) {
+            // Same timestamp as the previous sample, no speed to measure
+            return rate;
+        }
+        nanosAtRate[rate] += dt;
+        lastTime = timeNanos;
+
+        float dx = tiltX - lastTiltX;
+        float dy = tiltY - lastTiltY;
+        lastTiltX = tiltX;
+        lastTiltY = tiltY;
+        float seconds = dt * 1e-9f;
+        float speedSquared = (dx * dx + dy * dy) / (seconds * seconds);
+        energy += (speedSquared - energy) * dt / (float) (energyTimeConstantNanos + dt);
+
+        if (energy > moveEnergy) {
+            rate = RATE_FAST;
+            stillSince = timeNanos;
+        } else if (energy >= stillEnergy) {
+            stillSince = timeNanos;
+        } else if (rate < RATE_SLOW && timeNanos - stillSince >= holdNanos) {
+            rate++;
+            stillSince = timeNanos;
+        }
+        return rate;
+    }
+
+    /**
+     * Starts over at {@link #RATE_FAST} after the sensor was off; the gap until
+     * the next sample counts toward no rate.
+     */
+    void restart() {
+        started = false;
+        rate = RATE_FAST;
+        energy = 0f;
+    }
+
+    int rate() {
+        return rate;
+    }
+
+    float energy() {
+        return energy;
+    }
+
+    /** Time spent at {@code rate} up to the last sample, in nanoseconds. */
+    long nanosAt(int rate) {
+        return nanosAtRate[rate];
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.betterbattery;
+
+/**
+ * Binary trace format for everything that drives the toy: accelerometer or
+ * fused gravity samples, battery broadcasts and Glyph button events.
+ *
+ * A trace is the magic bytes {@code "BBTR"} and a version byte followed by
+ * records of
+ * <pre>
+ *   type     1 byte, one of ACCELEROMETER, BATTERY, BUTTON, GRAVITY
+ *   delta    unsigned LEB128 varint, microseconds since the previous record
+ *   payload  ACCELEROMETER: x, y, z as little-endian int16 in 1/400 m/s^2 (up to 81.9 m/s^2)
+ *            BATTERY:       level 0..100, 1 byte
+ *            BUTTON:        BUTTON_CHANGE or BUTTON_AOD, 1 byte
+ *            GRAVITY:       as ACCELEROMETER
+ * </pre>
+ * A game-rate accelerometer sample takes 10 bytes, about 0.5 KB per second of
+ * recording. Times never run backwards: a record stamped before its predecessor
+ * (sensor timestamps are taken before delivery) is stored with a zero delta.
+ */
+final class SensorTrace {
+
+    static final byte[] MAGIC = {'B', 'B', 'T', 'R'};
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = MAGIC.length + 1;
+    // Type, a varint of up to 10 bytes and the accelerometer payload
+    static final int MAX_RECORD_BYTES = 1 + 10 + 6;
+
+    static final int ACCELEROMETER = 1;
+    static final int BATTERY = 2;
+    static final int BUTTON = 3;
+    // Already filtered by the platform, replayed without smoothing
+    static final int GRAVITY = 4;
+
+    static final int BUTTON_CHANGE = 1; // Long press, restarts the fill animation
+    static final int BUTTON_AOD = 2; // Always-on display tick
+
+    // Accelerometer resolution is 1/400 m/s^2
+    static final float ACCELEROMETER_SCALE = 400f;
+
+    private SensorTrace() {
+    }
+}
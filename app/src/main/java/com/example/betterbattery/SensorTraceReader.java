@@ -0,0 +1,120 @@
+package com.example.betterbattery;
+
+/**
+ * Decodes a {@link SensorTrace} held in memory, one record per {@link #next()}.
+ *
+ * The fields of the current record are read through the accessors; only those
+ * of its type are meaningful. Iterating allocates nothing.
+ */
+final class SensorTraceReader {
+
+    private final byte[] trace;
+    private final int length;
+    private int position;
+
+    private int type;
+    private long timeNanos;
+    private float x;
+    private float y;
+    private float z;
+    private int value;
+
+    /** @throws IllegalArgumentException if {@code trace} does not start with a supported header */
+    SensorTraceReader(byte[] trace, int length) {
+        if (length < SensorTrace.HEADER_BYTES) {
+            throw new IllegalArgumentException("Trace too short");
+        }
+        for (int i = 0; i < SensorTrace.MAGIC.length; i++) {
+            if (trace[i] != SensorTrace.MAGIC[i]) {
+                throw new IllegalArgumentException("Not a sensor trace");
+            }
+        }
+        if (trace[SensorTrace.MAGIC.length] != SensorTrace.VERSION) {
+            throw new IllegalArgumentException("Unsupported trace version " + trace[SensorTrace.MAGIC.length]);
+        }
+        this.trace = trace;
+        this.length = length;
+        this.position = SensorTrace.HEADER_BYTES;
+    }
+
+    /**
+     * Advances to the next record and returns false at the end of the trace.
+     *
+     * @throws IllegalArgumentException if the trace ends inside a record or has an unknown type
+     */
+    boolean next() {
+        if (position >= length) {
+            return false;
+        }
+
+        type = trace[position++];
+        long delta = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = read();
+            delta |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        timeNanos += delta * 1000;
+
+        switch (type) {
+            case SensorTrace.ACCELEROMETER:
+            case SensorTrace.GRAVITY:
+                x = readShort() / SensorTrace.ACCELEROMETER_SCALE;
+                y = readShort() / SensorTrace.ACCELEROMETER_SCALE;
+                z = readShort() / SensorTrace.ACCELEROMETER_SCALE;
+                break;
+            case SensorTrace.BATTERY:
+            case SensorTrace.BUTTON:
+                value = read();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown record type " + type + " at " + (position - 1));
+        }
+        return true;
+    }
+
+    int type() {
+        return type;
+    }
+
+    /** Record time in ns on the clock the trace was recorded with. */
+    long timeNanos() {
+        return timeNanos;
+    }
+
+    float x() {
+        return x;
+    }
+
+    float y() {
+        return y;
+    }
+
+    float z() {
+        return z;
+    }
+
+    /** Battery level of a BATTERY record. */
+    int level() {
+        return value;
+    }
+
+    /** {@link SensorTrace#BUTTON_CHANGE} or {@link SensorTrace#BUTTON_AOD} of a BUTTON record. */
+    int button() {
+        return value;
+    }
+
+    private int read() {
+        if (position >= length) {
+            throw new IllegalArgumentException("Trace ends inside a record");
+        }
+        return trace[position++] & 0xFF;
+    }
+
+    private int readShort() {
+        int low = read();
+        return (short) (low | (read() << 8));
+    }
+}
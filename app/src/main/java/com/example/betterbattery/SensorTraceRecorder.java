@@ -0,0 +1,152 @@
+package com.example.betterbattery;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * Records a {@link SensorTrace} to a file on the device.
+ *
+ * Callers on any thread encode records into an in-memory chunk under a short
+ * lock; full chunks are handed to a background thread which does all file
+ * I/O, so recording never blocks sensor delivery or rendering. Chunks are
+ * recycled and, at 0.5 KB/s, one fills only every 16 seconds.
+ */
+final class SensorTraceRecorder {
+
+    private static final String TAG = "SensorTraceRecorder";
+    private static final int CHUNK_BYTES = 8192;
+
+    private final File file;
+    private final ArrayDeque<byte[]> freeChunks = new ArrayDeque<>();
+
+    private HandlerThread writerThread;
+    private Handler writerHandler;
+    private boolean recording;
+    private SensorTraceWriter writer;
+    private byte[] chunk;
+    private int chunkLength;
+
+    // Writer thread only
+    private FileOutputStream out;
+
+    SensorTraceRecorder(File file) {
+        this.file = file;
+    }
+
+    /** Starts a new trace, replacing any previous file. */
+    synchronized void start() {
+        if (recording) {
+            return;
+        }
+        writerThread = new HandlerThread("GlyphTrace", Process.THREAD_PRIORITY_BACKGROUND);
+        writerThread.start();
+        writerHandler = new Handler(writerThread.getLooper());
+        writerHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    out = new FileOutputStream(file);
+                } catch (IOException e) {
+                    Log.w(TAG, "Cannot record trace to " + file, e);
+                }
+            }
+        });
+
+        writer = new SensorTraceWriter();
+        chunk = new byte[CHUNK_BYTES];
+        chunkLength = SensorTraceWriter.header(chunk, 0);
+        recording = true;
+    }
+
+    synchronized void accelerometer(long timeNanos, float x, float y, float z) {
+        if (reserve()) {
+            chunkLength = writer.accelerometer(chunk, chunkLength, timeNanos, x, y, z);
+        }
+    }
+
+    synchronized void gravity(long timeNanos, float x, float y, float z) {
+        if (reserve()) {
+            chunkLength = writer.gravity(chunk, chunkLength, timeNanos, x, y, z);
+        }
+    }
+
+    synchronized void battery(long timeNanos, int level) {
+        if (reserve()) {
+            chunkLength = writer.battery(chunk, chunkLength, timeNanos, level);
+        }
+    }
+
+    synchronized void button(long timeNanos, int event) {
+        if (reserve()) {
+            chunkLength = writer.button(chunk, chunkLength, timeNanos, event);
+        }
+    }
+
+    /** Writes out everything recorded so far and closes the file in the background. */
+    synchronized void stop() {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        handOff();
+        writerHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (out == null) {
+                    return;
+                }
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Cannot close trace " + file, e);
+                }
+                out = null;
+            }
+        });
+        writerThread.quitSafely();
+    }
+
+    // Makes room for one record, returns false when not recording
+    private boolean reserve() {
+        if (!recording) {
+            return false;
+        }
+        if (chunkLength + SensorTrace.MAX_RECORD_BYTES > chunk.length) {
+            handOff();
+        }
+        return true;
+    }
+
+    // Queues the current chunk for writing and continues in a recycled one
+    private void handOff() {
+        final byte[] full = chunk;
+        final int length = chunkLength;
+        byte[] next = freeChunks.poll();
+        chunk = next != null ? next : new byte[CHUNK_BYTES];
+        chunkLength = 0;
+
+        writerHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (out != null) {
+                    try {
+                        out.write(full, 0, length);
+                    } catch (IOException e) {
+                        Log.w(TAG, "Trace write failed, recording stops", e);
+                        out = null;
+                    }
+                }
+                synchronized (SensorTraceRecorder.this) {
+                    freeChunks.add(full);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.betterbattery;
+
+/**
+ * Drives a {@link LiquidEngine} from a recorded {@link SensorTrace}, on the JVM
+ * and as fast as the CPU allows.
+ *
+ * Follows what {@code BetterBatteryToyService} does with live input: the fill
+ * animation starts with the trace, accelerometer samples are smoothed into
+ * gravity by the given {@link TiltFilter} while fused gravity samples are used
+ * as they are, frames are rendered every {@code frameInterval} ms of trace
+ * time, the loop stops once the liquid is at rest and resumes on movement, a
+ * battery change or a long press, and always-on display ticks render one extra
+ * frame. Frame times come from the trace, never from a clock, so a trace always
+ * produces the same frames.
+ */
+final class SensorTraceReplayer {
+
+    private final LiquidEngine engine;
+    private final int frameInterval;
+    private final TiltFilter filter;
+    private final float[] sample = new float[3];
+
+    private float tiltX;
+    private float tiltY;
+    private boolean suspended;
+    private long nextFrame;
+    private int frames;
+
+    SensorTraceReplayer(LiquidEngine engine, int frameInterval, TiltFilter filter) {
+        this.engine = engine;
+        this.frameInterval = frameInterval;
+        this.filter = filter;
+    }
+
+    /** Replays every record of {@code trace} and returns the number of frames rendered. */
+    int replay(SensorTraceReader trace) {
+        boolean started = false;
+
+        while (trace.next()) {
+            long now = trace.timeNanos() / 1000000;
+            if (!started) {
+                // Toy opens with the fill animation, like onServiceConnected
+                engine.startAnimation(now);
+                nextFrame = now;
+                started = true;
+            }
+            renderUntil(now);
+
+            switch (trace.type()) {
+                case SensorTrace.ACCELEROMETER:
+                    sample[0] = trace.x();
+                    sample[1] = trace.y();
+                    sample[2] = trace.z();
+                    filter.filter(trace.timeNanos(), sample);
+                    tiltX = sample[0];
+                    tiltY = sample[1];
+                    if (suspended && engine.movedFromRest(tiltX, tiltY)) {
+                        resume(now);
+                    }
+                    break;
+                case SensorTrace.GRAVITY:
+                    tiltX = trace.x();
+                    tiltY = trace.y();
+                    if (suspended && engine.movedFromRest(tiltX, tiltY)) {
+                        resume(now);
+                    }
+                    break;
+                case SensorTrace.BATTERY:
+                    engine.setBatteryLevel(trace.level());
+                    resume(now);
+                    break;
+                case SensorTrace.BUTTON:
+                    if (trace.button() == SensorTrace.BUTTON_CHANGE) {
+                        engine.startAnimation(now);
+                        resume(now);
+                    } else if (trace.button() == SensorTrace.BUTTON_AOD) {
+                        engine.renderFrame(now, tiltX, tiltY);
+                        frames++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return frames;
+    }
+
+    // Renders every frame due up to and including now, unless the loop is suspended
+    private void renderUntil(long now) {
+        while (!suspended && nextFrame <= now) {
+            engine.renderFrame(nextFrame, tiltX, tiltY);
+            frames++;
+            if (engine.isAtRest(tiltX, tiltY)) {
+                suspended = true;
+            }
+            nextFrame += frameInterval;
+        }
+    }
+
+    private void resume(long now) {
+        engine.resetRest();
+        if (suspended) {
+            suspended = false;
+            // Time spent suspended is not simulated
+            engine.resetClock(now);
+            nextFrame = now;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.betterbattery;
+
+/**
+ * Encodes {@link SensorTrace} records into caller-owned byte arrays.
+ *
+ * Each method writes one record at {@code position} and returns the position
+ * after it; callers keep at least {@link SensorTrace#MAX_RECORD_BYTES} free.
+ * Nothing is allocated. The writer remembers the previous record time for the
+ * deltas, so one writer encodes one trace; it is not thread safe.
+ */
+final class SensorTraceWriter {
+
+    private long lastTimeMicros;
+
+    /** Writes the trace header and returns the position after it. */
+    static int header(byte[] out, int position) {
+        System.arraycopy(SensorTrace.MAGIC, 0, out, position, SensorTrace.MAGIC.length);
+        out[position + SensorTrace.MAGIC.length] = (byte) SensorTrace.VERSION;
+        return position + SensorTrace.HEADER_BYTES;
+    }
+
+    int accelerometer(byte[] out, int position, long timeNanos, float x, float y, float z) {
+        position = start(out, position, SensorTrace.ACCELEROMETER, timeNanos);
+        position = writeShort(out, position, x);
+        position = writeShort(out, position, y);
+        return writeShort(out, position, z);
+    }
+
+    int gravity(byte[] out, int position, long timeNanos, float x, float y, float z) {
+        position = start(out, position, SensorTrace.GRAVITY, timeNanos);
+        position = writeShort(out, position, x);
+        position = writeShort(out, position, y);
+        return writeShort(out, position, z);
+    }
+
+    int battery(byte[] out, int position, long timeNanos, int level) {
+        position = start(out, position, SensorTrace.BATTERY, timeNanos);
+        out[position] = (byte) Math.max(0, Math.min(100, level));
+        return position + 1;
+    }
+
+    int button(byte[] out, int position, long timeNanos, int event) {
+        position = start(out, position, SensorTrace.BUTTON, timeNanos);
+        out[position] = (byte) event;
+        return position + 1;
+    }
+
+    private int start(byte[] out, int position, int type, long timeNanos) {
+        // Deltas are exact in microseconds, so replayed times do not drift; never step back in time
+        long delta = Math.max(0, timeNanos / 1000 - lastTimeMicros);
+        lastTimeMicros += delta;
+
+        out[position++] = (byte) type;
+        while ((delta & ~0x7FL) != 0) {
+            out[position++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        out[position++] = (byte) delta;
+        return position;
+    }
+
+    private static int writeShort(byte[] out, int position, float value) {
+        int scaled = Math.round(value * SensorTrace.ACCELEROMETER_SCALE);
+        scaled = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scaled));
+        out[position] = (byte) scaled;
+        out[position + 1] = (byte) (scaled >> 8);
+        return position + 2;
+    }
+}
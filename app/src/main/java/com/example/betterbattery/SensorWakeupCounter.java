@@ -0,0 +1,48 @@
+package com.example.betterbattery;
+
+/**
+ * Counts how often sensor delivery woke the app, as opposed to how many samples arrived.
+ *
+ * With FIFO batching the sensor hub hands over a whole batch at once and the
+ * callbacks for it run back to back. A sample delivered within
+ * {@code burstGapNanos} of the previous one belongs to the same wakeup; a
+ * longer gap means the app was idle in between and this delivery woke it.
+ *
+ * Not thread safe; feed it from the thread the sensor callbacks run on.
+ */
+final class SensorWakeupCounter {
+
+    private final long burstGapNanos;
+
+    private int samples;
+    private int wakeups;
+    private long lastDelivery;
+
+    SensorWakeupCounter(long burstGapNanos) {
+        this.burstGapNanos = burstGapNanos;
+    }
+
+    /** Notes one sample delivered at {@code nowNanos} and returns whether it started a new wakeup. */
+    boolean delivered(long nowNanos) {
+        boolean wakeup = samples == 0 || nowNanos - lastDelivery > burstGapNanos;
+        samples++;
+        if (wakeup) {
+            wakeups++;
+        }
+        lastDelivery = nowNanos;
+        return wakeup;
+    }
+
+    int samples() {
+        return samples;
+    }
+
+    int wakeups() {
+        return wakeups;
+    }
+
+    /** Average batch size, 1 when every sample woke the app on its own. */
+    float samplesPerWakeup() {
+        return wakeups == 0 ? 0f : samples / (float) wakeups;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.betterbattery;
+
+/**
+ * 1D shallow-water height-field solver for the liquid inside the circular matrix.
+ *
+ * Each wet column stores a water depth above its floor (the bottom of its chord
+ * in the circle). Velocities live on the faces between neighbouring columns
+ * ({@code velocity[i]} is the flow from column i to column i + 1), and depths
+ * are updated from upwind fluxes through those faces, so the total volume only
+ * changes through {@link #setVolume(float)}. Every {@link #step} advances the
+ * same fixed timestep, costs O(columns) and allocates nothing.
+ *
+ * Units are matrix pixels and seconds. Gravity is given in m/s^2 in matrix
+ * orientation (right and down as seen on the matrix) and scaled to px/s^2.
+ */
+final class ShallowWaterSolver implements LiquidSolver {
+
+    // Converts m/s^2 to px/s^2; makes waves cross the 25px disc in about a second
+    static final float GRAVITY_SCALE = 6f;
+    // Keeps the height field stable when the matrix faces up, down or sideways
+    static final float MIN_VERTICAL_GRAVITY = 2f;
+    // Velocity decay per second
+    static final float DAMPING = 1.5f;
+
+    private static final float DRY_DEPTH = 1e-4f;
+
+    private final int columns;
+    private final float dt;
+    private final float maxSpeed;
+    private final float[] floorRow;
+    private final boolean[] wet;
+    private final float[] depth;
+    private final float[] velocity;
+    private final float[] flux;
+
+    /**
+     * @param geometry matrix the liquid lives in
+     * @param dt       fixed timestep in seconds
+     */
+    ShallowWaterSolver(MatrixGeometry geometry, float dt) {
+        this.columns = geometry.size;
+        this.dt = dt;
+        // No face may move more than half a column's water per step, so depths never go negative
+        this.maxSpeed = 0.5f / dt;
+        this.floorRow = new float[columns];
+        this.wet = new boolean[columns];
+        this.depth = new float[columns];
+        this.velocity = new float[columns];
+        this.flux = new float[columns];
+
+        for (int x = 0; x < columns; x++) {
+            // Row just below the lowest pixel of the column's chord
+            floorRow[x] = geometry.columnBottom(x) + 1;
+            wet[x] = geometry.isLiquidColumn(x) && geometry.columnBottom(x) >= geometry.columnTop(x);
+        }
+    }
+
+    @Override
+    public float dt() {
+        return dt;
+    }
+
+    /** Face velocities in px/s; exposed read-only for rest detection. */
+    @Override
+    public float[] velocities() {
+        return velocity;
+    }
+
+    /** Total water volume in pixels. */
+    @Override
+    public float volume() {
+        float total = 0f;
+        for (int x = 0; x < columns; x++) {
+            total += depth[x];
+        }
+        return total;
+    }
+
+    /** Volume of still water whose surface lies at {@code surfaceRow}. */
+    @Override
+    public float flatVolume(float surfaceRow) {
+        float total = 0f;
+        for (int x = 0; x < columns; x++) {
+            if (wet[x]) {
+                total += Math.max(0f, floorRow[x] - surfaceRow);
+            }
+        }
+        return total;
+    }
+
+    /** Puts still water at {@code surfaceRow} in every column. */
+    @Override
+    public void reset(float surfaceRow) {
+        for (int x = 0; x < columns; x++) {
+            depth[x] = wet[x] ? Math.max(0f, floorRow[x] - surfaceRow) : 0f;
+            velocity[x] = 0f;
+        }
+    }
+
+    /** Puts still water with the given surface row in each column, e.g. a tilted rest surface. */
+    @Override
+    public void setSurfaceRows(float[] surfaceRows) {
+        for (int x = 0; x < columns; x++) {
+            depth[x] = wet[x] ? Math.max(0f, floorRow[x] - surfaceRows[x]) : 0f;
+            velocity[x] = 0f;
+        }
+    }
+
+    /**
+     * Adds or removes water to reach {@code target}. Added water is spread evenly
+     * over the wet columns; removed water is taken in proportion to each depth.
+     */
+    @Override
+    public void setVolume(float target) {
+        target = Math.max(0f, target);
+        float current = volume();
+        if (Math.abs(target - current) < 1e-3f) {
+            return;
+        }
+
+        if (target < current) {
+            float scale = target / current;
+            for (int x = 0; x < columns; x++) {
+                depth[x] *= scale;
+            }
+        } else {
+            int wetColumns = 0;
+            for (int x = 0; x < columns; x++) {
+                if (wet[x]) {
+                    wetColumns++;
+                }
+            }
+            float add = (target - current) / wetColumns;
+            for (int x = 0; x < columns; x++) {
+                if (wet[x]) {
+                    depth[x] += add;
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the simulation by one fixed timestep.
+     *
+     * @param gravityRight gravity towards the matrix's right edge, m/s^2
+     * @param gravityDown  gravity towards the matrix's bottom edge, m/s^2
+     */
+    @Override
+    public void step(float gravityRight, float gravityDown) {
+        float gx = gravityRight * GRAVITY_SCALE;
+        float gy = Math.max(gravityDown, MIN_VERTICAL_GRAVITY) * GRAVITY_SCALE;
+        float decay = Math.max(0f, 1f - DAMPING * dt);
+
+        // Momentum: surface slope and sideways gravity accelerate each face
+        for (int i = 0; i < columns - 1; i++) {
+            if (!wet[i] || !wet[i + 1]) {
+                velocity[i] = 0f;
+                flux[i] = 0f;
+                continue;
+            }
+
+            // Surface rows grow downwards, so a lower row number is a higher surface
+            float surfaceLeft = floorRow[i] - depth[i];
+            float surfaceRight = floorRow[i + 1] - depth[i + 1];
+            float u = velocity[i] + dt * (gy * (surfaceRight - surfaceLeft) + gx);
+            u *= decay;
+            u = Math.max(-maxSpeed, Math.min(maxSpeed, u));
+
+            // Upwind depth carries the flux; nothing flows out of a dry column
+            float upwind = u > 0f ? depth[i] : depth[i + 1];
+            if (upwind <= DRY_DEPTH) {
+                u = 0f;
+            }
+            velocity[i] = u;
+            flux[i] = u * upwind;
+        }
+        velocity[columns - 1] = 0f;
+        flux[columns - 1] = 0f;
+
+        // Continuity: what leaves one column enters its neighbour
+        for (int x = 0; x < columns; x++) {
+            float in = x > 0 ? flux[x - 1] : 0f;
+            depth[x] = Math.max(0f, depth[x] - dt * (flux[x] - in));
+        }
+    }
+
+    /** Writes the surface row of every column into {@code surfaceRows}; dry walls get the matrix size. */
+    @Override
+    public void surfaceRows(float[] surfaceRows) {
+        for (int x = 0; x < columns; x++) {
+            surfaceRows[x] = wet[x] ? floorRow[x] - depth[x] : columns;
+        }
+    }
+}
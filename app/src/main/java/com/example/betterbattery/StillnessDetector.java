@@ -0,0 +1,79 @@
+package com.example.betterbattery;
+
+/**
+ * Decides when the phone has been still long enough to switch the tilt sensor off.
+ *
+ * The caller says for every sample whether the phone looks still; once that
+ * has held without a break for {@code quietNanos}, {@link #update} returns true,
+ * exactly once per still period. A sample that is not still starts the
+ * period over. Counts how often and for how long the sensor was off, from
+ * the times passed to {@link #sleep} and {@link #wake}.
+ *
+ * Not thread safe; use it from the sensor thread.
+ */
+final class StillnessDetector {
+
+    private final long quietNanos;
+
+    private boolean still;
+    private boolean reported;
+    private long stillSince;
+
+    private boolean asleep;
+    private long sleepStarted;
+    private long sleepNanos;
+    private int sleeps;
+
+    StillnessDetector(long quietNanos) {
+        this.quietNanos = quietNanos;
+    }
+
+    /** Feeds one sample and returns true when the quiet period has just been reached. */
+    boolean update(long timeNanos, boolean stillNow) {
+        if (!stillNow) {
+            still = false;
+            return false;
+        }
+        if (!still) {
+            still = true;
+            reported = false;
+            stillSince = timeNanos;
+        }
+        if (!reported && timeNanos - stillSince >= quietNanos) {
+            reported = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** The sensor was switched off at {@code timeNanos}. */
+    void sleep(long timeNanos) {
+        if (!asleep) {
+            asleep = true;
+            sleepStarted = timeNanos;
+            sleeps++;
+        }
+    }
+
+    /** The sensor is back on at {@code timeNanos}; a new quiet period is needed to sleep again. */
+    void wake(long timeNanos) {
+        if (asleep) {
+            asleep = false;
+            sleepNanos += timeNanos - sleepStarted;
+        }
+        still = false;
+    }
+
+    boolean isAsleep() {
+        return asleep;
+    }
+
+    int sleeps() {
+        return sleeps;
+    }
+
+    /** Total time the sensor was off, up to the last {@link #wake}. */
+    long sleepNanos() {
+        return sleepNanos;
+    }
+}
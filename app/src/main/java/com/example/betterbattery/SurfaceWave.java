@@ -0,0 +1,104 @@
+package com.example.betterbattery;
+
+/**
+ * Decorative travelling wave on the liquid surface:
+ * {@code offset[x] = amplitude * sin(x * waveNumber + phase)}.
+ *
+ * The caller reads the clock once per frame and passes the phase; an
+ * implementation fills every column from it. Implementations differ only in
+ * how they evaluate the sine, so they can be swapped and benchmarked against
+ * {@link Exact}.
+ */
+interface SurfaceWave {
+
+    /** Writes the offset of every column for the given phase (radians) into {@code offsets}. */
+    void offsets(double phase, float[] offsets);
+
+    /** Reference implementation: one {@link Math#sin} per column. */
+    final class Exact implements SurfaceWave {
+
+        private final double waveNumber;
+        private final float amplitude;
+
+        Exact(double waveNumber, float amplitude) {
+            this.waveNumber = waveNumber;
+            this.amplitude = amplitude;
+        }
+
+        @Override
+        public void offsets(double phase, float[] offsets) {
+            for (int x = 0; x < offsets.length; x++) {
+                offsets[x] = (float) Math.sin(x * waveNumber + phase) * amplitude;
+            }
+        }
+    }
+
+    /**
+     * Linearly interpolated lookup in a 256-entry sine table, no trigonometry per
+     * frame. Interpolation error is at most {@code (2 pi / 256)^2 / 8}, about
+     * 7.6e-5 of the amplitude (6e-5 px at the 0.8 px ripple).
+     */
+    final class Table implements SurfaceWave {
+
+        static final int TABLE_SIZE = 256;
+        private static final double STEPS_PER_RADIAN = TABLE_SIZE / (2 * Math.PI);
+
+        // One extra entry so interpolation never wraps
+        private final float[] sine = new float[TABLE_SIZE + 1];
+        private final double waveNumberSteps;
+
+        Table(double waveNumber, float amplitude) {
+            for (int i = 0; i <= TABLE_SIZE; i++) {
+                sine[i] = (float) Math.sin(i / STEPS_PER_RADIAN) * amplitude;
+            }
+            this.waveNumberSteps = waveNumber * STEPS_PER_RADIAN;
+        }
+
+        @Override
+        public void offsets(double phase, float[] offsets) {
+            // Work in table steps, reduced once so the per-column positions stay small
+            double start = phase * STEPS_PER_RADIAN;
+            start -= Math.floor(start / TABLE_SIZE) * TABLE_SIZE;
+
+            for (int x = 0; x < offsets.length; x++) {
+                double position = start + x * waveNumberSteps;
+                int whole = (int) position;
+                float t = (float) (position - whole);
+                int index = whole & (TABLE_SIZE - 1);
+                offsets[x] = sine[index] + (sine[index + 1] - sine[index]) * t;
+            }
+        }
+    }
+
+    /**
+     * Rotates the phasor {@code (cos, sin)} by {@code waveNumber} from column to
+     * column, so a frame costs one sin and one cos however many columns there are.
+     * In double precision the accumulated rounding error stays below 1e-14 of the
+     * amplitude across the 25 columns.
+     */
+    final class Rotation implements SurfaceWave {
+
+        private final double stepCos;
+        private final double stepSin;
+        private final float amplitude;
+
+        Rotation(double waveNumber, float amplitude) {
+            this.stepCos = Math.cos(waveNumber);
+            this.stepSin = Math.sin(waveNumber);
+            this.amplitude = amplitude;
+        }
+
+        @Override
+        public void offsets(double phase, float[] offsets) {
+            double cos = Math.cos(phase);
+            double sin = Math.sin(phase);
+
+            for (int x = 0; x < offsets.length; x++) {
+                offsets[x] = (float) sin * amplitude;
+                double nextCos = cos * stepCos - sin * stepSin;
+                sin = sin * stepCos + cos * stepSin;
+                cos = nextCos;
+            }
+        }
+    }
+}
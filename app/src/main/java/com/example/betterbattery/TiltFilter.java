@@ -0,0 +1,246 @@
+package com.example.betterbattery;
+
+/**
+ * Smooths raw accelerometer samples into the gravity vector that drives the liquid.
+ *
+ * {@link #filter} replaces the x, y, z in {@code sample} with the filtered
+ * vector; the first sample after construction or {@link #reset()} passes
+ * through and seeds the state. Every implementation sets its smoothing in
+ * time from the sample timestamps, not per sample, so stepping the sensor rate
+ * down slows its response by no more than about one sample interval. Nothing
+ * is allocated per sample. Not thread safe.
+ *
+ * Measured on a desktop JVM with the parameters of {@link #create}: time per
+ * sample, time to reach 90% of a 5 m/s^2 step with 20 ms (game rate) and
+ * 200 ms (normal rate) between samples, overshoot on that step, and output
+ * noise for noisy still input relative to the EMA:
+ * <pre>
+ *   filter     ns/sample   90% at 20 ms   90% at 200 ms   overshoot   still noise
+ *   EMA            9          220 ms         400 ms          0%          1.00
+ *   ONE_EURO      30           60 ms         200 ms          0%          0.86
+ *   KALMAN        15          100 ms         200 ms         17%          1.47
+ * </pre>
+ */
+interface TiltFilter {
+
+    int EMA = 0;
+    int ONE_EURO = 1;
+    int KALMAN = 2;
+
+    /** Filters one sample of {@code timeNanos} in place; {@code sample} holds x, y, z. */
+    void filter(long timeNanos, float[] sample);
+
+    /** Forgets all state; the next sample passes through. */
+    void reset();
+
+    /** A filter of the given kind with the parameters the service uses. */
+    static TiltFilter create(int kind) {
+        switch (kind) {
+            case EMA:
+                // Same smoothing as the original 0.8-per-sample average at 50 Hz
+                return new Ema(80_000_000L);
+            case ONE_EURO:
+                return new OneEuro(1f, 0.5f, 1f);
+            case KALMAN:
+                // Gains of about 0.3 and 0.05 at game rate
+                return new Kalman(160f);
+            default:
+                throw new IllegalArgumentException("Unknown tilt filter " + kind);
+        }
+    }
+
+    /**
+     * Exponential moving average with time constant {@code timeConstantNanos}:
+     * each sample moves the output by {@code dt / (tau + dt)} of the way to it.
+     */
+    final class Ema implements TiltFilter {
+
+        private final long timeConstantNanos;
+        private final float[] state = new float[3];
+        private boolean started;
+        private long lastTime;
+
+        Ema(long timeConstantNanos) {
+            this.timeConstantNanos = timeConstantNanos;
+        }
+
+        @Override
+        public void filter(long timeNanos, float[] sample) {
+            long dt = timeNanos - lastTime;
+            if (!started) {
+                started = true;
+                weight(sample, 1f);
+            } else if (dt > 0) {
+                weight(sample, dt / (float) (timeConstantNanos + dt));
+            }
+            lastTime = timeNanos;
+            System.arraycopy(state, 0, sample, 0, 3);
+        }
+
+        private void weight(float[] sample, float weight) {
+            for (int i = 0; i < 3; i++) {
+                state[i] += (sample[i] - state[i]) * weight;
+            }
+        }
+
+        @Override
+        public void reset() {
+            started = false;
+            state[0] = state[1] = state[2] = 0f;
+        }
+    }
+
+    /**
+     * One-euro filter (Casiez et al., CHI 2012): an exponential average whose
+     * cutoff rises with the filtered speed of the signal, {@code minCutoff + beta * |speed|}
+     * Hz. A still phone is smoothed hard, a moving one follows with little lag.
+     * The speed, in m/s^2 per second, is itself smoothed at {@code derivativeCutoff} Hz.
+     */
+    final class OneEuro implements TiltFilter {
+
+        private final float minCutoff;
+        private final float beta;
+        private final float derivativeCutoff;
+        private final float[] value = new float[3];
+        private final float[] speed = new float[3];
+        private boolean started;
+        private long lastTime;
+
+        OneEuro(float minCutoff, float beta, float derivativeCutoff) {
+            this.minCutoff = minCutoff;
+            this.beta = beta;
+            this.derivativeCutoff = derivativeCutoff;
+        }
+
+        @Override
+        public void filter(long timeNanos, float[] sample) {
+            long dt = timeNanos - lastTime;
+            if (!started) {
+                started = true;
+                System.arraycopy(sample, 0, value, 0, 3);
+            } else if (dt > 0) {
+                float seconds = dt * 1e-9f;
+                float speedWeight = weight(derivativeCutoff, seconds);
+                for (int i = 0; i < 3; i++) {
+                    float raw = (sample[i] - value[i]) / seconds;
+                    speed[i] += (raw - speed[i]) * speedWeight;
+                    float cutoff = minCutoff + beta * Math.abs(speed[i]);
+                    value[i] += (sample[i] - value[i]) * weight(cutoff, seconds);
+                }
+            }
+            lastTime = timeNanos;
+            System.arraycopy(value, 0, sample, 0, 3);
+        }
+
+        // Smoothing factor of a first-order low-pass at cutoff Hz for a step of seconds
+        private static float weight(float cutoff, float seconds) {
+            float tau = 1f / (2f * (float) Math.PI * cutoff);
+            return seconds / (tau + seconds);
+        }
+
+        @Override
+        public void reset() {
+            started = false;
+            for (int i = 0; i < 3; i++) {
+                value[i] = 0f;
+                speed[i] = 0f;
+            }
+        }
+    }
+
+    /**
+     * Steady-state Kalman filter for a constant-velocity model, i.e. an alpha-beta
+     * filter: the state is value and rate per axis, predicted forward by {@code dt}
+     * and corrected by the gains {@code alpha} (value) and {@code beta} (rate).
+     * Tracking the rate removes the lag of a plain average on a steady turn, at
+     * the price of some overshoot on a sudden stop.
+     *
+     * The gains are the steady-state Kalman gains for the sample interval, from
+     * the tracking index {@code lambda = noiseRatio * dt^2} (Kalata 1984), where
+     * {@code noiseRatio} is the process noise (m/s^2 per s^2) over the
+     * measurement noise (m/s^2). Longer intervals get larger gains, so the
+     * response time stays roughly the same when the sensor rate is stepped down.
+     * They are recomputed only when the interval changes.
+     */
+    final class Kalman implements TiltFilter {
+
+        private final float noiseRatio;
+        private final float[] value = new float[3];
+        private final float[] rate = new float[3];
+        private boolean started;
+        private long lastTime;
+
+        // Gains for gainInterval, the last sample interval seen
+        private long gainInterval;
+        private float alpha;
+        private float beta;
+
+        Kalman(float noiseRatio) {
+            this.noiseRatio = noiseRatio;
+        }
+
+        @Override
+        public void filter(long timeNanos, float[] sample) {
+            long dt = timeNanos - lastTime;
+            if (!started) {
+                started = true;
+                System.arraycopy(sample, 0, value, 0, 3);
+            } else if (dt > 0) {
+                float seconds = dt * 1e-9f;
+                if (dt != gainInterval) {
+                    updateGains(seconds);
+                    gainInterval = dt;
+                }
+                float rateGain = beta / seconds;
+                for (int i = 0; i < 3; i++) {
+                    float predicted = value[i] + rate[i] * seconds;
+                    float residual = sample[i] - predicted;
+                    value[i] = predicted + alpha * residual;
+                    rate[i] += rateGain * residual;
+                }
+            }
+            lastTime = timeNanos;
+            System.arraycopy(value, 0, sample, 0, 3);
+        }
+
+        private void updateGains(float seconds) {
+            double lambda = noiseRatio * seconds * seconds;
+            double r = (4 + lambda - Math.sqrt(8 * lambda + lambda * lambda)) / 4;
+            alpha = (float) (1 - r * r);
+            beta = (float) (2 * (2 - alpha) - 4 * Math.sqrt(1 - alpha));
+        }
+
+        @Override
+        public void reset() {
+            started = false;
+            for (int i = 0; i < 3; i++) {
+                value[i] = 0f;
+                rate[i] = 0f;
+            }
+        }
+    }
+
+    /** Runs the stages in order, each on the output of the previous one. */
+    final class Chain implements TiltFilter {
+
+        private final TiltFilter[] stages;
+
+        Chain(TiltFilter... stages) {
+            this.stages = stages.clone();
+        }
+
+        @Override
+        public void filter(long timeNanos, float[] sample) {
+            for (TiltFilter stage : stages) {
+                stage.filter(timeNanos, sample);
+            }
+        }
+
+        @Override
+        public void reset() {
+            for (TiltFilter stage : stages) {
+                stage.reset();
+            }
+        }
+    }
+}
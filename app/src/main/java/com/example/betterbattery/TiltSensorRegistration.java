@@ -0,0 +1,82 @@
+package com.example.betterbattery;
+
+/**
+ * Keeps the tilt sensor registered at the wanted rate and batching latency,
+ * except while it is switched off.
+ *
+ * The rate and latency change from the sensor callback and from the render loop
+ * at any time. Between {@link #stop()} and the next {@link #start()} a change is
+ * only remembered, so that a battery broadcast or a long press while the sensors
+ * sleep does not switch the sensor back on; the next start uses the latest values.
+ *
+ * Not thread safe; owned by the sensor thread.
+ */
+final class TiltSensorRegistration {
+
+    /** Does the actual (re)registration with the sensor manager. */
+    interface Registrar {
+        /** Registers the sensor, replacing any earlier registration. */
+        void register(int rate, int reportLatencyUs);
+
+        void unregister();
+    }
+
+    private final Registrar registrar;
+    private int rate;
+    private int reportLatencyUs;
+    private boolean registered;
+
+    TiltSensorRegistration(Registrar registrar, int rate, int reportLatencyUs) {
+        this.registrar = registrar;
+        this.rate = rate;
+        this.reportLatencyUs = reportLatencyUs;
+    }
+
+    /** Registers with the current rate and latency. */
+    void start() {
+        register();
+    }
+
+    /** Unregisters until {@link #start()}; changes meanwhile are only remembered. */
+    void stop() {
+        if (registered) {
+            registered = false;
+            registrar.unregister();
+        }
+    }
+
+    void setRate(int rate) {
+        if (rate != this.rate) {
+            this.rate = rate;
+            if (registered) {
+                register();
+            }
+        }
+    }
+
+    void setReportLatencyUs(int reportLatencyUs) {
+        if (reportLatencyUs != this.reportLatencyUs) {
+            this.reportLatencyUs = reportLatencyUs;
+            if (registered) {
+                register();
+            }
+        }
+    }
+
+    int rate() {
+        return rate;
+    }
+
+    int reportLatencyUs() {
+        return reportLatencyUs;
+    }
+
+    boolean isRegistered() {
+        return registered;
+    }
+
+    private void register() {
+        registered = true;
+        registrar.register(rate, reportLatencyUs);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.betterbattery;
+
+/**
+ * Hands the filtered in-plane gravity from the sensor thread to the render thread
+ * as one consistent x, y pair, without locks or allocation.
+ *
+ * A sequence lock: the single writer makes the sequence odd, writes the vector
+ * and makes it even again. A reader that saw the same even sequence before and
+ * after reading the vector got one whole sample; otherwise it raced a write and
+ * reads again. The writer never waits, and a reader retries at most for the few
+ * nanoseconds a write takes. All fields are volatile, so under the Java memory
+ * model the vector reads cannot move outside the two sequence reads.
+ */
+final class TiltSnapshot {
+
+    private volatile int sequence;
+    private volatile float x;
+    private volatile float y;
+
+    /** Publishes a new vector. Only one thread may publish. */
+    void publish(float x, float y) {
+        int next = sequence + 1;
+        sequence = next;
+        this.x = x;
+        this.y = y;
+        sequence = next + 1;
+    }
+
+    /** Copies the latest whole vector into {@code out} as x, y. Any thread. */
+    void read(float[] out) {
+        while (true) {
+            int before = sequence;
+            if ((before & 1) == 0) {
+                out[0] = x;
+                out[1] = y;
+                if (sequence == before) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Number of vectors published so far. */
+    int publishes() {
+        return sequence >>> 1;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.betterbattery;
+
+/**
+ * Ring of rendered liquid layers covering one period of the idle ripple.
+ *
+ * While the liquid is still, the ripple is the only moving part and it repeats
+ * every {@code periodMillis}. The period is split into {@code slots} phases;
+ * each phase is rendered once, stored here and replayed on later cycles without
+ * simulating or rasterizing. All entries belong to one key (the level and tilt
+ * bucket they were drawn for) and a lookup with any other key empties the ring.
+ *
+ * Not thread safe; owned by the render thread.
+ */
+final class WaveCycleCache {
+
+    private final int slots;
+    private final float periodMillis;
+    private final int[][] frames;
+    private final boolean[] filled;
+
+    private long key;
+    private boolean keyed;
+    private int hits;
+    private int misses;
+
+    WaveCycleCache(int slots, float periodMillis, int pixelCount) {
+        this.slots = slots;
+        this.periodMillis = periodMillis;
+        this.frames = new int[slots][pixelCount];
+        this.filled = new boolean[slots];
+    }
+
+    /** Phase slot that {@code timeMillis} falls in. */
+    int slot(long timeMillis) {
+        double cycle = timeMillis % (double) periodMillis;
+        return Math.min(slots - 1, (int) (cycle * slots / periodMillis));
+    }
+
+    /** Ripple phase in radians at the start of {@code slot}. */
+    double phase(int slot) {
+        return slot * 2 * Math.PI / slots;
+    }
+
+    /**
+     * Returns the stored layer for {@code slot} if it was drawn with {@code key},
+     * otherwise null. A new key drops every stored layer.
+     */
+    int[] lookup(long key, int slot) {
+        rekey(key);
+        if (filled[slot]) {
+            hits++;
+            return frames[slot];
+        }
+        misses++;
+        return null;
+    }
+
+    /** Copies a freshly rendered layer into {@code slot}. */
+    void store(long key, int slot, int[] frame) {
+        rekey(key);
+        System.arraycopy(frame, 0, frames[slot], 0, frame.length);
+        filled[slot] = true;
+    }
+
+    /** Drops every stored layer. */
+    void invalidate() {
+        keyed = false;
+        for (int slot = 0; slot < slots; slot++) {
+            filled[slot] = false;
+        }
+    }
+
+    int hits() {
+        return hits;
+    }
+
+    int misses() {
+        return misses;
+    }
+
+    private void rekey(long key) {
+        if (!keyed || key != this.key) {
+            invalidate();
+            this.key = key;
+            keyed = true;
+        }
+    }
+}
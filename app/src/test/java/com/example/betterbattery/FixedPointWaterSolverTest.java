@@ -0,0 +1,89 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FixedPointWaterSolverTest {
+
+    private static final int SIZE = 25;
+
+    private final MatrixGeometry geometry = new MatrixGeometry(SIZE);
+
+    @Test
+    public void multiply_roundsQ16Products() {
+        int half = FixedPointWaterSolver.toFixed(0.5f);
+        int three = FixedPointWaterSolver.toFixed(3f);
+
+        assertEquals(FixedPointWaterSolver.toFixed(1.5f), FixedPointWaterSolver.multiply(half, three));
+        assertEquals(FixedPointWaterSolver.toFixed(-1.5f), FixedPointWaterSolver.multiply(-half, three));
+        assertEquals(2.25f, FixedPointWaterSolver.toFloat(FixedPointWaterSolver.toFixed(2.25f)), 0f);
+    }
+
+    @Test
+    public void step_conservesVolumeExactly() {
+        FixedPointWaterSolver solver = new FixedPointWaterSolver(geometry, 0.01f);
+        solver.reset(15f);
+        float volume = solver.volume();
+
+        for (int step = 0; step < 500; step++) {
+            solver.step(step % 100 < 50 ? 8f : -8f, 9.8f);
+            assertEquals(volume, solver.volume(), 0f);
+        }
+    }
+
+    @Test
+    public void step_tracksFloatSolverWithinOnePixel() {
+        LiquidSolver floating = new ShallowWaterSolver(geometry, 0.01f);
+        LiquidSolver fixed = new FixedPointWaterSolver(geometry, 0.01f);
+        floating.reset(14f);
+        fixed.reset(14f);
+        float[] expected = new float[SIZE];
+        float[] actual = new float[SIZE];
+
+        for (int step = 0; step < 2000; step++) {
+            // Swing the phone back and forth, then hold it tilted
+            float right = step < 1000 ? (float) (6 * Math.sin(step * 0.02)) : 3f;
+            floating.step(right, 9.8f);
+            fixed.step(right, 9.8f);
+
+            floating.surfaceRows(expected);
+            fixed.surfaceRows(actual);
+            assertArrayEquals("step " + step, expected, actual, 1f);
+        }
+
+        // Settled surfaces agree far more closely than a pixel
+        assertArrayEquals(expected, actual, 0.05f);
+    }
+
+    @Test
+    public void velocities_areConvertedWhenRead() {
+        LiquidSolver floating = new ShallowWaterSolver(geometry, 0.01f);
+        LiquidSolver fixed = new FixedPointWaterSolver(geometry, 0.01f);
+        floating.reset(14f);
+        fixed.reset(14f);
+
+        for (int step = 0; step < 50; step++) {
+            floating.step(4f, 9.8f);
+            fixed.step(4f, 9.8f);
+        }
+        assertArrayEquals(floating.velocities(), fixed.velocities(), 0.05f);
+
+        fixed.reset(14f);
+        assertArrayEquals(new float[SIZE], fixed.velocities(), 0f);
+    }
+
+    @Test
+    public void setVolume_matchesFlatSurface() {
+        FixedPointWaterSolver solver = new FixedPointWaterSolver(geometry, 0.01f);
+        solver.reset(SIZE);
+        assertEquals(0f, solver.volume(), 0f);
+
+        float target = solver.flatVolume(12f);
+        solver.setVolume(target);
+        assertEquals(target, solver.volume(), 1e-3f);
+
+        solver.setVolume(target / 2);
+        assertEquals(target / 2, solver.volume(), 1e-3f);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FixedStepAccumulatorTest {
+
+    @Test
+    public void advance_paysOutWholeStepsAndKeepsRemainder() {
+        FixedStepAccumulator clock = new FixedStepAccumulator(10, 10);
+        clock.reset(0);
+
+        assertEquals(0, clock.advance(7));
+        assertEquals(0.7f, clock.alpha(), 1e-6f);
+        assertEquals(1, clock.advance(15));
+        assertEquals(0.5f, clock.alpha(), 1e-6f);
+        assertEquals(5, clock.advance(65));
+        assertEquals(0.5f, clock.alpha(), 1e-6f);
+    }
+
+    @Test
+    public void advance_stepCountIsIndependentOfFrameRate() {
+        FixedStepAccumulator fast = new FixedStepAccumulator(10, 10);
+        FixedStepAccumulator slow = new FixedStepAccumulator(10, 10);
+        fast.reset(0);
+        slow.reset(0);
+
+        int fastSteps = 0;
+        for (long t = 16; t <= 960; t += 16) {
+            fastSteps += fast.advance(t);
+        }
+        int slowSteps = 0;
+        for (long t = 48; t <= 960; t += 48) {
+            slowSteps += slow.advance(t);
+        }
+        assertEquals(96, fastSteps);
+        assertEquals(96, slowSteps);
+    }
+
+    @Test
+    public void advance_dropsTimeBeyondMaxSteps() {
+        FixedStepAccumulator clock = new FixedStepAccumulator(10, 4);
+        clock.reset(0);
+
+        assertEquals(4, clock.advance(1003));
+        // The fraction of a step survives, so the next frame does not snap back
+        assertEquals(0.3f, clock.alpha(), 1e-6f);
+        assertEquals(1, clock.advance(1010));
+        assertEquals(0f, clock.alpha(), 1e-6f);
+    }
+
+    @Test
+    public void advance_firstCallOnlyStartsTiming() {
+        FixedStepAccumulator clock = new FixedStepAccumulator(10, 4);
+
+        assertEquals(0, clock.advance(500));
+        assertEquals(2, clock.advance(520));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class FrameCompositorTest {
+
+    private static final int SIZE = 25;
+
+    @Test
+    public void compose_stacksTextOverContrastOverLiquid() {
+        FrameCompositor compositor = new FrameCompositor(SIZE, 100, 2047);
+        compositor.setContrastRoundRect(6.5f, 7.5f, 18.5f, 17.5f, 2f);
+
+        // Text mask stored after one unrelated word to exercise the offset
+        long[] text = new long[11];
+        int index = 12 * SIZE + 10;
+        text[1 + (index >>> 6)] |= 1L << index;
+        compositor.setTextMask(text, 1);
+
+        int[] liquid = new int[SIZE * SIZE];
+        Arrays.fill(liquid, 481);
+
+        int[] frame = compositor.compose(liquid);
+
+        assertEquals(2047, frame[12 * SIZE + 10]);
+        // Inside the plate the liquid is hidden
+        assertEquals(100, frame[12 * SIZE + 12]);
+        // Plate corners are rounded, so the liquid shows through there
+        assertEquals(481, frame[7 * SIZE + 6]);
+        // Outside the plate the liquid shows
+        assertEquals(481, frame[2 * SIZE + 12]);
+    }
+
+    @Test
+    public void compose_blackPlateIsTransparent() {
+        FrameCompositor compositor = new FrameCompositor(SIZE, 0, 2047);
+        compositor.setContrastRoundRect(6.5f, 7.5f, 18.5f, 17.5f, 2f);
+        compositor.setTextMask(new long[10], 0);
+
+        int[] liquid = new int[SIZE * SIZE];
+        Arrays.fill(liquid, 481);
+
+        // A 0 pixel in a layer does not cover the layers below, as in GlyphMatrixFrame
+        assertEquals(481, compositor.compose(liquid)[12 * SIZE + 12]);
+    }
+
+    @Test
+    public void compose_reusesFrameBuffer() {
+        FrameCompositor compositor = new FrameCompositor(SIZE, 0, 2047);
+        int[] liquid = new int[SIZE * SIZE];
+
+        assertSame(compositor.compose(liquid), compositor.compose(liquid));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameDiffGateTest {
+
+    private static final int PIXELS = 625;
+
+    @Test
+    public void shouldPush_skipsIdenticalFrames() {
+        FrameDiffGate gate = new FrameDiffGate(PIXELS);
+        int[] frame = new int[PIXELS];
+        frame[300] = 481;
+
+        assertTrue(gate.shouldPush(frame));
+        assertFalse(gate.shouldPush(frame));
+        assertFalse(gate.shouldPush(frame.clone()));
+        assertEquals(1, gate.pushedFrames());
+        assertEquals(2, gate.skippedFrames());
+    }
+
+    @Test
+    public void shouldPush_detectsShapeAndBrightnessChanges() {
+        FrameDiffGate gate = new FrameDiffGate(PIXELS);
+        int[] frame = new int[PIXELS];
+        frame[624] = 481;
+        assertTrue(gate.shouldPush(frame));
+
+        frame[624] = 0;
+        frame[623] = 481;
+        assertTrue(gate.shouldPush(frame));
+
+        frame[623] = 2047;
+        assertTrue(gate.shouldPush(frame));
+        assertEquals(3, gate.pushedFrames());
+    }
+
+    @Test
+    public void invalidate_forcesNextPush() {
+        FrameDiffGate gate = new FrameDiffGate(PIXELS);
+        int[] frame = new int[PIXELS];
+
+        assertTrue(gate.shouldPush(frame));
+        gate.invalidate();
+        assertTrue(gate.shouldPush(frame));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameSchedulerTest {
+
+    @Test
+    public void deadlines_doNotDriftWithRenderTime() {
+        FrameScheduler scheduler = new FrameScheduler(50);
+        long deadline = scheduler.start(1000);
+
+        for (int frame = 1; frame <= 10; frame++) {
+            scheduler.frameStarted(deadline + 2);
+            // Each frame takes 7ms to render
+            deadline = scheduler.nextDeadline(deadline + 9);
+            assertEquals(1000 + frame * 50L, deadline);
+        }
+        assertEquals(0, scheduler.skippedFrames());
+        assertEquals(2, scheduler.maxLateness());
+        assertEquals(2f, scheduler.averageLateness(), 0.001f);
+    }
+
+    @Test
+    public void missedDeadlines_areSkippedNotQueued() {
+        FrameScheduler scheduler = new FrameScheduler(50);
+        scheduler.start(0);
+        scheduler.frameStarted(0);
+
+        // Render stalled until 170ms: deadlines 50, 100 and 150 are gone
+        assertEquals(200, scheduler.nextDeadline(170));
+        assertEquals(3, scheduler.skippedFrames());
+
+        // Exactly on a deadline counts as missed as well
+        scheduler.frameStarted(200);
+        assertEquals(300, scheduler.nextDeadline(250));
+        assertEquals(4, scheduler.skippedFrames());
+    }
+
+    @Test
+    public void lateness_isRecordedPerFrame() {
+        FrameScheduler scheduler = new FrameScheduler(50);
+        long deadline = scheduler.start(0);
+
+        scheduler.frameStarted(deadline + 3);
+        deadline = scheduler.nextDeadline(deadline + 5);
+        scheduler.frameStarted(deadline + 11);
+
+        assertEquals(11, scheduler.lateness(0));
+        assertEquals(3, scheduler.lateness(1));
+        assertEquals(2, scheduler.frames());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameTripleBufferTest {
+
+    @Test
+    public void acquireLatest_returnsNullUntilPublished() {
+        FrameTripleBuffer buffer = new FrameTripleBuffer(4);
+
+        assertNull(buffer.acquireLatest());
+        buffer.backBuffer()[0] = 7;
+        buffer.publish();
+
+        assertEquals(7, buffer.acquireLatest()[0]);
+        assertNull(buffer.acquireLatest());
+    }
+
+    @Test
+    public void acquireLatest_dropsStaleFrames() {
+        FrameTripleBuffer buffer = new FrameTripleBuffer(4);
+
+        for (int frame = 1; frame <= 5; frame++) {
+            buffer.backBuffer()[0] = frame;
+            buffer.publish();
+        }
+
+        assertEquals(5, buffer.acquireLatest()[0]);
+    }
+
+    @Test
+    public void producerNeverWritesIntoConsumerFrame() {
+        FrameTripleBuffer buffer = new FrameTripleBuffer(4);
+        buffer.backBuffer()[0] = 1;
+        buffer.publish();
+        int[] front = buffer.acquireLatest();
+
+        for (int frame = 2; frame <= 4; frame++) {
+            assertNotSame(front, buffer.backBuffer());
+            buffer.backBuffer()[0] = frame;
+            buffer.publish();
+        }
+        assertEquals(1, front[0]);
+    }
+
+    @Test
+    public void concurrentExchange_deliversIncreasingFrames() throws InterruptedException {
+        final FrameTripleBuffer buffer = new FrameTripleBuffer(16);
+        final int frames = 200000;
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int frame = 1; frame <= frames; frame++) {
+                    int[] back = buffer.backBuffer();
+                    for (int i = 0; i < back.length; i++) {
+                        back[i] = frame;
+                    }
+                    buffer.publish();
+                }
+            }
+        });
+        producer.start();
+
+        int last = 0;
+        while (last < frames) {
+            int[] frame = buffer.acquireLatest();
+            if (frame == null) {
+                continue;
+            }
+            // Every pixel comes from the same frame and frames never go backwards
+            for (int value : frame) {
+                assertEquals(frame[0], value);
+            }
+            assertTrue(frame[0] > last);
+            last = frame[0];
+        }
+        producer.join();
+    }
+}
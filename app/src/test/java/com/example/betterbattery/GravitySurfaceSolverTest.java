@@ -0,0 +1,91 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GravitySurfaceSolverTest {
+
+    private static final int SIZE = 25;
+
+    private final MatrixGeometry geometry = new MatrixGeometry(SIZE);
+    private final GravitySurfaceSolver solver = new GravitySurfaceSolver(geometry);
+
+    @Test
+    public void chordOffset_matchesSegmentArea() {
+        assertEquals(1f, solver.chordOffset(0f), 1e-5f);
+        assertEquals(0f, solver.chordOffset(0.5f), 1e-5f);
+        assertEquals(-1f, solver.chordOffset(1f), 1e-5f);
+
+        for (float fill = 0.05f; fill < 1f; fill += 0.1f) {
+            double u = solver.chordOffset(fill);
+            assertEquals(fill, GravitySurfaceSolver.segmentFraction(u), 1e-3);
+        }
+    }
+
+    @Test
+    public void solve_coversFillFractionForAnyGravityDirection() {
+        int inside = countLit(new float[SIZE], new float[SIZE], -1f, 0f, 1f);
+
+        for (int degrees = 0; degrees < 360; degrees += 30) {
+            double angle = Math.toRadians(degrees);
+            float right = (float) (9.8 * Math.sin(angle));
+            float down = (float) (9.8 * Math.cos(angle));
+
+            int lit = countLit(new float[SIZE], new float[SIZE], right, down, 0.3f);
+            assertEquals("angle " + degrees, 0.3f * inside, lit, inside * 0.05f);
+        }
+    }
+
+    @Test
+    public void solve_lyingFlatSettlesStraightDown() {
+        float[] top = new float[SIZE];
+        float[] bottom = new float[SIZE];
+        float[] flatTop = new float[SIZE];
+        float[] flatBottom = new float[SIZE];
+        solver.solve(0f, 9.8f, 0.4f, top, bottom);
+
+        // Accelerometer noise with the matrix facing up
+        solver.solve(0.03f, -0.04f, 0.4f, flatTop, flatBottom);
+        assertArrayEquals(top, flatTop, 0f);
+        assertArrayEquals(bottom, flatBottom, 0f);
+        solver.solve(-0.05f, 0f, 0.4f, flatTop, flatBottom);
+        assertArrayEquals(top, flatTop, 0f);
+    }
+
+    @Test
+    public void solve_upsideDownFillsFromTheTop() {
+        float[] top = new float[SIZE];
+        float[] bottom = new float[SIZE];
+
+        solver.solve(0f, -9.8f, 0.25f, top, bottom);
+
+        assertEquals(-1f, top[SIZE / 2], 0f);
+        assertTrue(bottom[SIZE / 2] < geometry.centerY);
+    }
+
+    @Test
+    public void solve_tiltedSurfaceIsPerpendicularToGravity() {
+        float[] top = new float[SIZE];
+        float[] bottom = new float[SIZE];
+
+        solver.solve(3f, 6f, 0.5f, top, bottom);
+
+        // Surface slope is -gravityRight / gravityDown rows per column
+        assertEquals(-0.5f, top[13] - top[12], 1e-4f);
+        assertEquals(SIZE, bottom[12], 0f);
+    }
+
+    private int countLit(float[] top, float[] bottom, float right, float down, float fill) {
+        solver.solve(right, down, fill, top, bottom);
+        int lit = 0;
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                if (geometry.isInside(x, y) && y >= top[x] && y <= bottom[x]) {
+                    lit++;
+                }
+            }
+        }
+        return lit;
+    }
+}
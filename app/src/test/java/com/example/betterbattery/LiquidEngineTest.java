@@ -0,0 +1,201 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LiquidEngineTest {
+
+    private static final int SIZE = 25;
+    private static final int FRAME_MS = 50;
+    private static final float G = 9.8f;
+
+    private final RecordingFrameSink sink = new RecordingFrameSink(SIZE);
+    private final LiquidEngine engine = new LiquidEngine(SIZE, FRAME_MS, false, true, sink);
+
+    @Test
+    public void renderFrame_drawsLevelTextOverLiquid() {
+        engine.setBatteryLevel(75);
+        engine.renderFrame(1000, 0f, G);
+
+        int[] frame = sink.lastFrame();
+        assertEquals(1, sink.frames().size());
+        // "75%": the "7" starts with a full top bar on row 10
+        assertEquals(LiquidEngine.TEXT_PIXEL, frame[10 * SIZE + 4]);
+        // Three quarters full: liquid at the bottom, nothing at the top
+        assertEquals(LiquidEngine.LIQUID_PIXEL, frame[22 * SIZE + 12]);
+        assertEquals(0, frame[2 * SIZE + 12]);
+    }
+
+    @Test
+    public void startAnimation_fillsUpToBatteryLevel() {
+        engine.setBatteryLevel(60);
+        engine.startAnimation(0);
+
+        int previous = -1;
+        long now = 0;
+        while (engine.isAnimating()) {
+            engine.renderFrame(now, 0f, G);
+            int lit = countLiquid(sink.lastFrame());
+            assertTrue("frame at " + now, lit >= previous);
+            previous = lit;
+            now += FRAME_MS;
+            assertTrue(now <= 1000);
+        }
+
+        assertFalse(engine.isAtRest(0f, G));
+        assertTrue(previous > 0);
+    }
+
+    @Test
+    public void isAtRest_afterOneQuietRipplePeriod() {
+        engine.setBatteryLevel(50);
+        long now = 0;
+        int frames = 0;
+        do {
+            engine.renderFrame(now, 0f, G);
+            now += FRAME_MS;
+            frames++;
+            assertTrue("never came to rest", frames < 200);
+        } while (!engine.isAtRest(0f, G));
+
+        // Quiet for a whole 1.57s ripple period, so its frames are all cached
+        assertTrue("frames " + frames, frames * FRAME_MS >= 1571);
+        assertTrue(engine.movedFromRest(5f, G));
+        assertFalse(engine.movedFromRest(0.1f, G));
+    }
+
+    @Test
+    public void renderFrame_isDeterministic() {
+        RecordingFrameSink otherSink = new RecordingFrameSink(SIZE);
+        LiquidEngine other = new LiquidEngine(SIZE, FRAME_MS, false, true, otherSink);
+        engine.setBatteryLevel(40);
+        other.setBatteryLevel(40);
+
+        for (int frame = 0; frame < 100; frame++) {
+            float right = (float) (6 * Math.sin(frame * 0.2));
+            engine.renderFrame(frame * FRAME_MS, right, G);
+            other.renderFrame(frame * FRAME_MS, right, G);
+        }
+
+        for (int frame = 0; frame < 100; frame++) {
+            assertArrayEquals("frame " + frame, sink.frames().get(frame), otherSink.frames().get(frame));
+        }
+    }
+
+    @Test
+    public void renderFrame_upsideDownKeepsLiquidAtTheTop() {
+        engine.setBatteryLevel(30);
+        engine.renderFrame(0, 0f, -G);
+
+        int[] frame = sink.lastFrame();
+        assertEquals(LiquidEngine.LIQUID_PIXEL, frame[2 * SIZE + 12]);
+        assertEquals(0, frame[22 * SIZE + 12]);
+    }
+
+    @Test
+    public void renderFrame_lyingFlatKeepsLiquidAtTheBottom() {
+        engine.setBatteryLevel(40);
+        long now = 0;
+        // Noise around zero in-plane gravity, as on a desk
+        float[][] noise = {{0.03f, -0.04f}, {-0.05f, 0f}, {0.02f, 0.05f}, {-0.04f, -0.03f}};
+        for (int frame = 0; frame < 40; frame++, now += FRAME_MS) {
+            float[] gravity = noise[frame % noise.length];
+            engine.renderFrame(now, gravity[0], gravity[1]);
+
+            int[] pixels = sink.lastFrame();
+            assertEquals("frame " + frame, LiquidEngine.LIQUID_PIXEL, pixels[22 * SIZE + 12]);
+            assertEquals("frame " + frame, 0, pixels[2 * SIZE + 12]);
+            assertEquals("frame " + frame, 0, pixels[12 * SIZE + 1]);
+        }
+    }
+
+    @Test
+    public void stillLiquid_replaysRippleCycleAcrossRestEpisodes() {
+        // The service loop: render, then suspend once at rest; wake again seconds later
+        engine.setBatteryLevel(50);
+        long now = 0;
+        int firstFrames = restEpisode(now);
+        assertEquals(0, engine.rippleCacheHits());
+        // The first rest at a level fills one ripple period (1.57s) of frames, not just the quiet second
+        assertTrue("frames " + firstFrames, firstFrames * FRAME_MS >= 1571);
+
+        for (int episode = 0; episode < 3; episode++) {
+            now += 7000 + episode * 333;
+            int misses = engine.rippleCacheMisses();
+            int hits = engine.rippleCacheHits();
+            engine.resetRest();
+            engine.resetClock(now);
+            int frames = restEpisode(now);
+
+            // Later wake-ups at the same level and tilt replay every frame from the cache
+            assertEquals(misses, engine.rippleCacheMisses());
+            assertEquals(frames, engine.rippleCacheHits() - hits);
+        }
+    }
+
+    @Test
+    public void noisyTiltOnBucketEdge_restsAndReplaysRippleCycle() {
+        // Upright with the tilt on the 3.75 degree edge between two atlas angles, +-0.1 degrees of noise
+        engine.setBatteryLevel(50);
+        Random noise = new Random(1);
+        long now = 0;
+        restEpisode(now, noise);
+
+        for (int episode = 0; episode < 3; episode++) {
+            now += 7000 + episode * 333;
+            engine.resetRest();
+            engine.resetClock(now);
+            restEpisode(now, noise);
+        }
+        int misses = engine.rippleCacheMisses();
+        int hits = engine.rippleCacheHits();
+        now += 5000;
+        engine.resetRest();
+        engine.resetClock(now);
+        int frames = restEpisode(now, noise);
+
+        // The noise never re-keys the cache, so a wake-up replays its whole rest
+        assertEquals(misses, engine.rippleCacheMisses());
+        assertEquals(frames, engine.rippleCacheHits() - hits);
+    }
+
+    // Renders from start until the engine reports rest, returns the number of frames
+    private int restEpisode(long start) {
+        return restEpisode(start, null);
+    }
+
+    // Same, with gravity on the edge of two atlas angles and noise on its direction if given
+    private int restEpisode(long start, Random noise) {
+        long now = start;
+        int frames = 0;
+        float right;
+        float down;
+        do {
+            right = 0f;
+            down = G;
+            if (noise != null) {
+                double angle = Math.toRadians(3.75 + (noise.nextDouble() * 2 - 1) * 0.1);
+                right = (float) (G * Math.sin(angle));
+                down = (float) (G * Math.cos(angle));
+            }
+            engine.renderFrame(now, right, down);
+            now += FRAME_MS;
+            frames++;
+            assertTrue("never came to rest", frames < 200);
+        } while (!engine.isAtRest(right, down));
+        return frames;
+    }
+
+    private static int countLiquid(int[] frame) {
+        int lit = 0;
+        for (int value : frame) {
+            if (value == LiquidEngine.LIQUID_PIXEL) {
+                lit++;
+            }
+        }
+        return lit;
+    }
+}
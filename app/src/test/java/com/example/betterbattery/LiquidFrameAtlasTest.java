@@ -0,0 +1,81 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LiquidFrameAtlasTest {
+
+    private static final int SIZE = 25;
+    private static final int ANGLES = 48;
+
+    private final MatrixGeometry geometry = new MatrixGeometry(SIZE);
+    private final GravitySurfaceSolver solver = new GravitySurfaceSolver(geometry);
+    private final LiquidFrameAtlas atlas = new LiquidFrameAtlas(geometry, solver, ANGLES);
+
+    @Test
+    public void angleIndex_quantizesAroundTheCircle() {
+        assertEquals(0, atlas.angleIndex(0f, 9.8f));
+        assertEquals(0, atlas.angleIndex(0f, 0f));
+        assertEquals(ANGLES / 4, atlas.angleIndex(9.8f, 0f));
+        assertEquals(ANGLES / 2, atlas.angleIndex(0f, -9.8f));
+        assertEquals(3 * ANGLES / 4, atlas.angleIndex(-9.8f, 0f));
+        // Just left of straight down wraps to the last step, not a negative index
+        assertEquals(ANGLES - 1, atlas.angleIndex(-1.3f, 9.8f));
+        // Lying flat: the noise in the plane does not pick an angle
+        assertEquals(0, atlas.angleIndex(-0.05f, 0f));
+        assertEquals(0, atlas.angleIndex(0.03f, -0.04f));
+    }
+
+    @Test
+    public void offset_matchesRasterizedStillSurface() {
+        LiquidRasterizer rasterizer = new LiquidRasterizer(geometry);
+        float[] top = new float[SIZE];
+        float[] bottom = new float[SIZE];
+
+        for (int angle = 0; angle < ANGLES; angle += 5) {
+            for (int level = 0; level <= 100; level += 15) {
+                double radians = angle * 2 * Math.PI / ANGLES;
+                solver.solve((float) (9.8 * Math.sin(radians)), (float) (9.8 * Math.cos(radians)),
+                        level / 100f, top, bottom);
+                for (int x = 0; x < SIZE; x++) {
+                    if (!geometry.isLiquidColumn(x)) {
+                        top[x] = SIZE;
+                    }
+                }
+                int[] expected = rasterizer.rasterize(top, bottom, 1);
+
+                int offset = atlas.offset(level, angle);
+                for (int index = 0; index < SIZE * SIZE; index++) {
+                    boolean lit = (atlas.bits(level)[offset + (index >>> 6)] & (1L << index)) != 0;
+                    assertEquals("level " + level + " angle " + angle + " pixel " + index,
+                            expected[index] != 0, lit);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void offset_buildsMasksLazilyAndClampsLevels() {
+        assertEquals(0, atlas.builtMasks());
+
+        assertEquals(atlas.offset(100, 3), atlas.offset(140, 3));
+        assertEquals(atlas.offset(0, 3), atlas.offset(-5, 3));
+        assertSame(atlas.bits(100), atlas.bits(140));
+
+        assertEquals(2, atlas.builtMasks());
+        assertEquals(ANGLES * 10, atlas.bits(100).length);
+    }
+
+    @Test
+    public void storage_isAllocatedPerLevelOnFirstUse() {
+        assertEquals(0, atlas.allocatedLevels());
+
+        for (int angle = 0; angle < ANGLES; angle++) {
+            atlas.offset(64, angle);
+        }
+        atlas.offset(65, 0);
+
+        assertEquals(2, atlas.allocatedLevels());
+    }
+}
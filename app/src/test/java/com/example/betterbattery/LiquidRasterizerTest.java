@@ -0,0 +1,82 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LiquidRasterizerTest {
+
+    private static final int SIZE = 25;
+
+    @Test
+    public void ledValue_matchesSdkConversion() {
+        assertEquals(2047, LiquidRasterizer.ledValue(255, 255));
+        assertEquals(481, LiquidRasterizer.ledValue(85, 180));
+        assertEquals(0, LiquidRasterizer.ledValue(0, 255));
+    }
+
+    @Test
+    public void rasterize_fillsOnlyBelowSurfaceInsideCircle() {
+        LiquidRasterizer rasterizer = new LiquidRasterizer(new MatrixGeometry(SIZE));
+        float[] heights = new float[SIZE];
+        Arrays.fill(heights, 12f);
+
+        int[] frame = rasterizer.rasterize(heights, 100);
+
+        // Above the surface stays dark, the centre below it is lit
+        assertEquals(0, frame[5 * SIZE + 12]);
+        assertEquals(100, frame[20 * SIZE + 12]);
+        // Corners are outside the circular boundary
+        assertEquals(0, frame[(SIZE - 1) * SIZE]);
+        assertEquals(0, frame[SIZE * SIZE - 1]);
+    }
+
+    @Test
+    public void rasterize_reusesBufferAndClearsPreviousFrame() {
+        LiquidRasterizer rasterizer = new LiquidRasterizer(new MatrixGeometry(SIZE));
+        float[] heights = new float[SIZE];
+
+        Arrays.fill(heights, 0f);
+        int[] full = rasterizer.rasterize(heights, 100);
+        Arrays.fill(heights, SIZE);
+        int[] empty = rasterizer.rasterize(heights, 100);
+
+        assertSame(full, empty);
+        for (int value : empty) {
+            assertEquals(0, value);
+        }
+    }
+
+    @Test
+    public void rasterizeMask_movesFreeEdgeByRipple() {
+        MatrixGeometry geometry = new MatrixGeometry(SIZE);
+        LiquidFrameAtlas atlas = new LiquidFrameAtlas(geometry, new GravitySurfaceSolver(geometry), 8);
+        LiquidRasterizer rasterizer = new LiquidRasterizer(geometry);
+        int offset = atlas.offset(50, 0);
+        float[] ripple = new float[SIZE];
+
+        int[] still = rasterizer.rasterize(atlas.bits(50), offset, ripple, true, 100).clone();
+        int stillTop = firstLitRow(still, 12);
+
+        ripple[12] = 0.8f;
+        ripple[13] = -0.8f;
+        int[] frame = rasterizer.rasterize(atlas.bits(50), offset, ripple, true, 100);
+
+        assertEquals(stillTop + 1, firstLitRow(frame, 12));
+        assertEquals(stillTop - 1, firstLitRow(frame, 13));
+        assertEquals(stillTop, firstLitRow(frame, 14));
+        // Bottom of the disc is untouched by a top ripple
+        assertEquals(100, frame[geometry.columnBottom(12) * SIZE + 12]);
+    }
+
+    private static int firstLitRow(int[] frame, int x) {
+        for (int y = 0; y < SIZE; y++) {
+            if (frame[y * SIZE + x] != 0) {
+                return y;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MatrixGeometryTest {
+
+    private static final int SIZE = 25;
+
+    @Test
+    public void mask_matchesPerPixelDistanceTest() {
+        MatrixGeometry geometry = new MatrixGeometry(SIZE);
+        float center = SIZE / 2f;
+        float radius = SIZE / 2f - 1;
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                double distance = Math.sqrt(Math.pow(x - center, 2) + Math.pow(y - center, 2));
+                assertEquals("pixel " + x + "," + y, distance <= radius, geometry.isInside(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void columnChords_coverExactlyTheInsidePixels() {
+        MatrixGeometry geometry = new MatrixGeometry(SIZE);
+
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                boolean inChord = y >= geometry.columnTop(x) && y <= geometry.columnBottom(x);
+                assertEquals("pixel " + x + "," + y, geometry.isInside(x, y), inChord);
+            }
+        }
+    }
+
+    @Test
+    public void liquidColumns_matchCentreDistance() {
+        MatrixGeometry geometry = new MatrixGeometry(SIZE);
+
+        assertFalse(geometry.isLiquidColumn(0));
+        assertTrue(geometry.isLiquidColumn(1));
+        assertTrue(geometry.isLiquidColumn(SIZE - 1));
+        assertEquals(SIZE - 1, geometry.liquidColumnCount());
+    }
+}
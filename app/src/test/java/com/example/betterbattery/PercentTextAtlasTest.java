@@ -0,0 +1,48 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercentTextAtlasTest {
+
+    private static final int SIZE = 25;
+
+    @Test
+    public void label_zeroPadsSingleDigits() {
+        PercentTextAtlas atlas = new PercentTextAtlas(SIZE, 4, 9);
+
+        // "05%": the leading "0" has its top-middle dots on row 1 of the glyph
+        assertTrue(atlas.isLit(5, 10 * SIZE + 5));
+        assertTrue(atlas.isLit(5, 10 * SIZE + 6));
+        // "5" starts at x = 4 + 4 + 1 with a full top bar
+        assertTrue(atlas.isLit(5, 10 * SIZE + 9));
+        assertTrue(atlas.isLit(5, 10 * SIZE + 12));
+        // Top row of every glyph is empty
+        for (int x = 0; x < SIZE; x++) {
+            assertFalse(atlas.isLit(5, 9 * SIZE + x));
+        }
+    }
+
+    @Test
+    public void label_hundredUsesNarrowOne() {
+        PercentTextAtlas atlas = new PercentTextAtlas(SIZE, 4, 9);
+
+        // "1" is three dots wide, so the first "0" starts at x = 8
+        assertTrue(atlas.isLit(100, 10 * SIZE + 6));
+        assertTrue(atlas.isLit(100, 10 * SIZE + 9));
+        assertTrue(atlas.isLit(100, 11 * SIZE + 8));
+        // Percent sign spans x = 18..21
+        assertTrue(atlas.isLit(100, 14 * SIZE + 21));
+        assertFalse(atlas.isLit(100, 14 * SIZE + 22));
+    }
+
+    @Test
+    public void offset_clampsOutOfRangeLevels() {
+        PercentTextAtlas atlas = new PercentTextAtlas(SIZE, 4, 9);
+
+        assertEquals(atlas.offset(0), atlas.offset(-3));
+        assertEquals(atlas.offset(100), atlas.offset(250));
+        assertEquals(101 * 10, atlas.bits().length);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.betterbattery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** {@link FrameSink} for tests that keeps a copy of every completed frame. */
+final class RecordingFrameSink implements FrameSink {
+
+    private final int[] buffer;
+    private final List<int[]> frames = new ArrayList<>();
+    private boolean open;
+
+    RecordingFrameSink(int size) {
+        this.buffer = new int[size * size];
+    }
+
+    @Override
+    public int[] beginFrame() {
+        if (open) {
+            throw new IllegalStateException("beginFrame called twice without endFrame");
+        }
+        open = true;
+        return buffer;
+    }
+
+    @Override
+    public void endFrame() {
+        if (!open) {
+            throw new IllegalStateException("endFrame called without beginFrame");
+        }
+        open = false;
+        frames.add(buffer.clone());
+    }
+
+    List<int[]> frames() {
+        return frames;
+    }
+
+    int[] lastFrame() {
+        return frames.get(frames.size() - 1);
+    }
+}
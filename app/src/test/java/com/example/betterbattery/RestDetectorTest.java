@@ -0,0 +1,67 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RestDetectorTest {
+
+    private static final int COLUMNS = 25;
+
+    private final float[] heights = new float[COLUMNS];
+    private final float[] restHeights = new float[COLUMNS];
+    private final float[] velocities = new float[COLUMNS];
+
+    @Test
+    public void update_reportsRestAfterQuietFrames() {
+        RestDetector detector = new RestDetector(1f, 0.05f, 0.3f, 3);
+        Arrays.fill(restHeights, 15f);
+        Arrays.fill(heights, 15.5f);
+
+        assertFalse(detector.update(heights, restHeights, velocities, 0f, 0f));
+        assertFalse(detector.update(heights, restHeights, velocities, 0.1f, 0f));
+        assertTrue(detector.update(heights, restHeights, velocities, 0.1f, 0.1f));
+    }
+
+    @Test
+    public void update_restartsQuietPeriodWhenLiquidMoves() {
+        RestDetector detector = new RestDetector(1f, 0.05f, 0.3f, 2);
+        Arrays.fill(restHeights, 15f);
+        Arrays.fill(heights, 15f);
+
+        assertFalse(detector.update(heights, restHeights, velocities, 0f, 0f));
+        heights[7] = 18f;
+        assertFalse(detector.update(heights, restHeights, velocities, 0f, 0f));
+        heights[7] = 15f;
+        velocities[3] = 1f;
+        assertFalse(detector.update(heights, restHeights, velocities, 0f, 0f));
+        velocities[3] = 0f;
+        assertFalse(detector.update(heights, restHeights, velocities, 0f, 0f));
+        assertTrue(detector.update(heights, restHeights, velocities, 0f, 0f));
+    }
+
+    @Test
+    public void tiltChange_breaksRestAndWakes() {
+        RestDetector detector = new RestDetector(1f, 0.05f, 0.3f, 2);
+
+        detector.update(heights, restHeights, velocities, 0f, 0f);
+        assertTrue(detector.update(heights, restHeights, velocities, 0f, 0f));
+
+        assertFalse(detector.movedFromRest(0.2f, -0.2f));
+        assertTrue(detector.movedFromRest(0.5f, 0f));
+        assertFalse(detector.update(heights, restHeights, velocities, 0.5f, 0f));
+    }
+
+    @Test
+    public void reset_requiresNewQuietPeriod() {
+        RestDetector detector = new RestDetector(1f, 0.05f, 0.3f, 2);
+
+        detector.update(heights, restHeights, velocities, 0f, 0f);
+        assertTrue(detector.update(heights, restHeights, velocities, 0f, 0f));
+        detector.reset();
+        assertFalse(detector.update(heights, restHeights, velocities, 0f, 0f));
+        assertTrue(detector.update(heights, restHeights, velocities, 0f, 0f));
+    }
+}
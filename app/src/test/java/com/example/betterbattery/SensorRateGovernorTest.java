@@ -0,0 +1,74 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SensorRateGovernorTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long SAMPLE = 20 * MS;
+
+    private final SensorRateGovernor governor = new SensorRateGovernor(2.25f, 0.09f, 1000 * MS, 500 * MS);
+    private long time;
+    private float tiltX;
+
+    // Feeds samples for durationMs with the tilt moving at speed (m/s^2 per second) along x
+    private int run(long durationMs, float speed) {
+        int rate = governor.rate();
+        for (long t = 0; t < durationMs * MS; t += SAMPLE) {
+            tiltX += speed * SAMPLE * 1e-9f;
+            rate = governor.update(time, tiltX, 0f);
+            time += SAMPLE;
+        }
+        return rate;
+    }
+
+    @Test
+    public void stillPhone_stepsDownOneRateAtATime() {
+        assertEquals(SensorRateGovernor.RATE_FAST, run(900, 0f));
+        assertEquals(SensorRateGovernor.RATE_MEDIUM, run(200, 0f));
+        assertEquals(SensorRateGovernor.RATE_MEDIUM, run(800, 0f));
+        assertEquals(SensorRateGovernor.RATE_SLOW, run(300, 0f));
+        assertEquals(SensorRateGovernor.RATE_SLOW, run(5000, 0f));
+    }
+
+    @Test
+    public void movement_jumpsBackToFastRate() {
+        assertEquals(SensorRateGovernor.RATE_SLOW, run(3000, 0f));
+        assertEquals(SensorRateGovernor.RATE_FAST, run(400, 5f));
+    }
+
+    @Test
+    public void gentleDrift_holdsCurrentRate() {
+        // Between the still and move thresholds neither steps down nor up
+        assertEquals(SensorRateGovernor.RATE_FAST, run(3000, 1f));
+        run(2500, 0f);
+        assertEquals(SensorRateGovernor.RATE_MEDIUM, governor.rate());
+        assertEquals(SensorRateGovernor.RATE_MEDIUM, run(3000, 1f));
+    }
+
+    @Test
+    public void restart_returnsToFastRateWithoutCountingTheGap() {
+        assertEquals(SensorRateGovernor.RATE_SLOW, run(3000, 0f));
+        long slow = governor.nanosAt(SensorRateGovernor.RATE_SLOW);
+
+        governor.restart();
+        time += 60_000 * MS;
+        assertEquals(SensorRateGovernor.RATE_FAST, run(100, 0f));
+        assertEquals(slow, governor.nanosAt(SensorRateGovernor.RATE_SLOW));
+    }
+
+    @Test
+    public void timeAtRate_coversTheWholeTrace() {
+        run(2500, 0f);
+        run(500, 5f);
+        long total = 0;
+        for (int rate = 0; rate < SensorRateGovernor.RATE_COUNT; rate++) {
+            total += governor.nanosAt(rate);
+        }
+        assertEquals(time - SAMPLE, total);
+        assertTrue(governor.nanosAt(SensorRateGovernor.RATE_SLOW) > 0);
+        assertTrue(governor.nanosAt(SensorRateGovernor.RATE_MEDIUM) >= 1000 * MS - SAMPLE);
+    }
+}
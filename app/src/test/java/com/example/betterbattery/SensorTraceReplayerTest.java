@@ -0,0 +1,69 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SensorTraceReplayerTest {
+
+    private static final int SIZE = 25;
+    private static final int FRAME_MS = 50;
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void replay_isDeterministic() {
+        byte[] trace = new byte[64 * 1024];
+        int length = swingingTrace(trace);
+
+        RecordingFrameSink first = new RecordingFrameSink(SIZE);
+        RecordingFrameSink second = new RecordingFrameSink(SIZE);
+        int firstFrames = replay(trace, length, first);
+        int secondFrames = replay(trace, length, second);
+
+        assertEquals(firstFrames, secondFrames);
+        assertEquals(firstFrames, first.frames().size());
+        for (int frame = 0; frame < firstFrames; frame++) {
+            assertArrayEquals("frame " + frame, first.frames().get(frame), second.frames().get(frame));
+        }
+    }
+
+    @Test
+    public void replay_suspendsAtRestAndWakesOnEvents() {
+        byte[] trace = new byte[64 * 1024];
+        SensorTraceWriter writer = new SensorTraceWriter();
+        int length = SensorTraceWriter.header(trace, 0);
+        length = writer.battery(trace, length, 0, 80);
+        // Phone lies still for 30s
+        for (long t = 0; t <= 30_000; t += 20) {
+            length = writer.accelerometer(trace, length, t * MS, 0f, 9.8f, 0f);
+        }
+        length = writer.battery(trace, length, 30_000 * MS, 79);
+        length = writer.button(trace, length, 30_010 * MS, SensorTrace.BUTTON_AOD);
+
+        RecordingFrameSink sink = new RecordingFrameSink(SIZE);
+        int frames = replay(trace, length, sink);
+
+        // Animation, settling and a quiet second, far fewer than the 600 frames of 30s
+        assertTrue("frames " + frames, frames < 200);
+        // The battery change resumed the loop and the AOD tick added a frame
+        int[] last = sink.lastFrame();
+        assertEquals(LiquidEngine.TEXT_PIXEL, last[10 * SIZE + 4]);
+    }
+
+    private static int replay(byte[] trace, int length, RecordingFrameSink sink) {
+        LiquidEngine engine = new LiquidEngine(SIZE, FRAME_MS, false, true, sink);
+        SensorTraceReplayer replayer = new SensorTraceReplayer(engine, FRAME_MS, TiltFilter.create(TiltFilter.ONE_EURO));
+        return replayer.replay(new SensorTraceReader(trace, length));
+    }
+
+    private static int swingingTrace(byte[] trace) {
+        SensorTraceWriter writer = new SensorTraceWriter();
+        int length = SensorTraceWriter.header(trace, 0);
+        length = writer.battery(trace, length, 0, 64);
+        for (long t = 0; t < 3000; t += 20) {
+            float ax = (float) (6 * Math.sin(t * 0.004));
+            length = writer.accelerometer(trace, length, t * MS, ax, 9.8f, 0f);
+        }
+        return writer.button(trace, length, 3000 * MS, SensorTrace.BUTTON_CHANGE);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SensorTraceTest {
+
+    @Test
+    public void roundTrip_keepsEveryRecord() {
+        byte[] trace = new byte[256];
+        SensorTraceWriter writer = new SensorTraceWriter();
+        int length = SensorTraceWriter.header(trace, 0);
+        length = writer.accelerometer(trace, length, 5_000_000_000L, 0.5f, -9.81f, 1.25f);
+        length = writer.battery(trace, length, 5_020_000_000L, 73);
+        length = writer.button(trace, length, 5_020_500_000L, SensorTrace.BUTTON_AOD);
+        length = writer.gravity(trace, length, 5_040_000_000L, -1.5f, 9.5f, 0.75f);
+
+        SensorTraceReader reader = new SensorTraceReader(trace, length);
+
+        assertTrue(reader.next());
+        assertEquals(SensorTrace.ACCELEROMETER, reader.type());
+        assertEquals(5_000_000_000L, reader.timeNanos());
+        assertEquals(0.5f, reader.x(), 1f / 400);
+        assertEquals(-9.81f, reader.y(), 1f / 400);
+        assertEquals(1.25f, reader.z(), 1f / 400);
+
+        assertTrue(reader.next());
+        assertEquals(SensorTrace.BATTERY, reader.type());
+        assertEquals(5_020_000_000L, reader.timeNanos());
+        assertEquals(73, reader.level());
+
+        assertTrue(reader.next());
+        assertEquals(SensorTrace.BUTTON, reader.type());
+        assertEquals(5_020_500_000L, reader.timeNanos());
+        assertEquals(SensorTrace.BUTTON_AOD, reader.button());
+
+        assertTrue(reader.next());
+        assertEquals(SensorTrace.GRAVITY, reader.type());
+        assertEquals(5_040_000_000L, reader.timeNanos());
+        assertEquals(-1.5f, reader.x(), 1f / 400);
+        assertEquals(9.5f, reader.y(), 1f / 400);
+        assertEquals(0.75f, reader.z(), 1f / 400);
+
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void accelerometerSample_takesTenBytesAtGameRate() {
+        byte[] trace = new byte[64];
+        SensorTraceWriter writer = new SensorTraceWriter();
+        int start = writer.accelerometer(trace, 0, 1_000_000_000L, 0f, 9.8f, 0f);
+
+        int end = writer.accelerometer(trace, start, 1_020_000_000L, 0.1f, 9.7f, 0.2f);
+
+        assertEquals(10, end - start);
+    }
+
+    @Test
+    public void writer_neverStepsBackInTimeAndClampsValues() {
+        byte[] trace = new byte[64];
+        SensorTraceWriter writer = new SensorTraceWriter();
+        int length = SensorTraceWriter.header(trace, 0);
+        length = writer.battery(trace, length, 2_000_000L, 40);
+        length = writer.accelerometer(trace, length, 1_000_000L, 200f, -200f, 0f);
+
+        SensorTraceReader reader = new SensorTraceReader(trace, length);
+        reader.next();
+        reader.next();
+
+        assertEquals(2_000_000L, reader.timeNanos());
+        assertEquals(Short.MAX_VALUE / 400f, reader.x(), 0f);
+        assertEquals(Short.MIN_VALUE / 400f, reader.y(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reader_rejectsForeignData() {
+        new SensorTraceReader(new byte[]{'P', 'N', 'G', 0, 1}, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reader_rejectsTruncatedRecord() {
+        byte[] trace = new byte[64];
+        int length = new SensorTraceWriter().accelerometer(trace, SensorTraceWriter.header(trace, 0), 0L, 1f, 2f, 3f);
+
+        SensorTraceReader reader = new SensorTraceReader(trace, length - 1);
+        reader.next();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SensorWakeupCounterTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void unbatchedSamples_eachWake() {
+        SensorWakeupCounter counter = new SensorWakeupCounter(2 * MS);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(counter.delivered(i * 20 * MS));
+        }
+        assertEquals(10, counter.samples());
+        assertEquals(10, counter.wakeups());
+        assertEquals(1f, counter.samplesPerWakeup(), 0f);
+    }
+
+    @Test
+    public void batchDeliveredBackToBack_countsAsOneWakeup() {
+        SensorWakeupCounter counter = new SensorWakeupCounter(2 * MS);
+        // Two batches of 13 samples, 250ms apart, each drained within a few hundred microseconds
+        for (int batch = 0; batch < 2; batch++) {
+            for (int i = 0; i < 13; i++) {
+                boolean wakeup = counter.delivered(batch * 250 * MS + i * 30_000L);
+                assertEquals(i == 0, wakeup);
+            }
+        }
+        assertEquals(26, counter.samples());
+        assertEquals(2, counter.wakeups());
+        assertEquals(13f, counter.samplesPerWakeup(), 0f);
+    }
+
+    @Test
+    public void noSamples_reportsZero() {
+        SensorWakeupCounter counter = new SensorWakeupCounter(2 * MS);
+        assertEquals(0, counter.wakeups());
+        assertEquals(0f, counter.samplesPerWakeup(), 0f);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ShallowWaterSolverTest {
+
+    private static final int SIZE = 25;
+
+    private final MatrixGeometry geometry = new MatrixGeometry(SIZE);
+
+    @Test
+    public void step_conservesVolumeWhileSloshing() {
+        ShallowWaterSolver solver = new ShallowWaterSolver(geometry, 0.01f);
+        solver.reset(15f);
+        float volume = solver.volume();
+
+        for (int step = 0; step < 500; step++) {
+            // Shake left and right
+            solver.step(step % 100 < 50 ? 8f : -8f, 9.8f);
+            assertEquals(volume, solver.volume(), volume * 1e-4f);
+        }
+    }
+
+    @Test
+    public void step_levelsOutWhenUpright() {
+        ShallowWaterSolver solver = new ShallowWaterSolver(geometry, 0.01f);
+        solver.reset(15f);
+        for (int step = 0; step < 100; step++) {
+            solver.step(9.8f, 0f);
+        }
+
+        for (int step = 0; step < 1000; step++) {
+            solver.step(0f, 9.8f);
+        }
+
+        float[] surface = new float[SIZE];
+        solver.surfaceRows(surface);
+        for (int x = 2; x < SIZE - 2; x++) {
+            assertEquals("column " + x, surface[SIZE / 2], surface[x], 0.1f);
+        }
+        for (float velocity : solver.velocities()) {
+            assertEquals(0f, velocity, 0.1f);
+        }
+    }
+
+    @Test
+    public void step_tiltPilesWaterOnLowSide() {
+        ShallowWaterSolver solver = new ShallowWaterSolver(geometry, 0.01f);
+        solver.reset(15f);
+
+        for (int step = 0; step < 1000; step++) {
+            solver.step(3f, 9.8f);
+        }
+
+        float[] surface = new float[SIZE];
+        solver.surfaceRows(surface);
+        // Gravity pulls right, so the surface is higher (smaller row) on the right
+        assertTrue(surface[20] < surface[12]);
+        assertTrue(surface[12] < surface[4]);
+    }
+
+    @Test
+    public void setVolume_matchesFlatSurface() {
+        ShallowWaterSolver solver = new ShallowWaterSolver(geometry, 0.01f);
+        solver.reset(SIZE);
+        assertEquals(0f, solver.volume(), 0f);
+
+        float target = solver.flatVolume(12f);
+        solver.setVolume(target);
+        assertEquals(target, solver.volume(), 1e-3f);
+
+        solver.setVolume(target / 2);
+        assertEquals(target / 2, solver.volume(), 1e-3f);
+    }
+
+    @Test
+    public void surfaceRows_dryColumnsAreEmpty() {
+        ShallowWaterSolver solver = new ShallowWaterSolver(geometry, 0.01f);
+        solver.reset(15f);
+
+        float[] surface = new float[SIZE];
+        solver.surfaceRows(surface);
+        assertEquals(SIZE, surface[0], 0f);
+        assertEquals(15f, surface[SIZE / 2], 0f);
+    }
+}
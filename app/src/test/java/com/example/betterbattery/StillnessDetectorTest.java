@@ -0,0 +1,52 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StillnessDetectorTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void update_reportsOnceAfterQuietPeriod() {
+        StillnessDetector detector = new StillnessDetector(1000 * MS);
+        assertFalse(detector.update(0, true));
+        assertFalse(detector.update(999 * MS, true));
+        assertTrue(detector.update(1000 * MS, true));
+        assertFalse(detector.update(1200 * MS, true));
+        assertFalse(detector.update(5000 * MS, true));
+    }
+
+    @Test
+    public void movement_restartsQuietPeriod() {
+        StillnessDetector detector = new StillnessDetector(1000 * MS);
+        detector.update(0, true);
+        assertFalse(detector.update(800 * MS, false));
+        assertFalse(detector.update(900 * MS, true));
+        assertFalse(detector.update(1500 * MS, true));
+        assertTrue(detector.update(1900 * MS, true));
+    }
+
+    @Test
+    public void sleepAndWake_countTimeOff() {
+        StillnessDetector detector = new StillnessDetector(1000 * MS);
+        detector.update(0, true);
+        assertTrue(detector.update(1000 * MS, true));
+
+        detector.sleep(1000 * MS);
+        assertTrue(detector.isAsleep());
+        detector.wake(61_000 * MS);
+        assertFalse(detector.isAsleep());
+        assertEquals(60_000 * MS, detector.sleepNanos());
+        assertEquals(1, detector.sleeps());
+
+        // Awake again, a full new quiet period is needed
+        assertFalse(detector.update(61_020 * MS, true));
+        assertTrue(detector.update(62_020 * MS, true));
+        detector.sleep(62_020 * MS);
+        detector.wake(62_520 * MS);
+        assertEquals(60_500 * MS, detector.sleepNanos());
+        assertEquals(2, detector.sleeps());
+    }
+}
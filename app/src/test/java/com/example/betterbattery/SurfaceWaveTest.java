@@ -0,0 +1,48 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SurfaceWaveTest {
+
+    private static final int COLUMNS = 25;
+    private static final double WAVE_NUMBER = 0.4;
+    private static final float AMPLITUDE = 0.8f;
+
+    private final SurfaceWave exact = new SurfaceWave.Exact(WAVE_NUMBER, AMPLITUDE);
+
+    @Test
+    public void table_staysWithinDocumentedError() {
+        assertMatchesExact(new SurfaceWave.Table(WAVE_NUMBER, AMPLITUDE), 7.6e-5f * AMPLITUDE + 1e-6f);
+    }
+
+    @Test
+    public void rotation_matchesExactSine() {
+        assertMatchesExact(new SurfaceWave.Rotation(WAVE_NUMBER, AMPLITUDE), 1e-6f);
+    }
+
+    @Test
+    public void table_handlesNegativeAndWallClockPhases() {
+        SurfaceWave table = new SurfaceWave.Table(WAVE_NUMBER, AMPLITUDE);
+        float[] expected = new float[COLUMNS];
+        float[] actual = new float[COLUMNS];
+
+        for (double phase : new double[]{-3.5, -100.25, 1.7e12 * 0.004}) {
+            exact.offsets(phase, expected);
+            table.offsets(phase, actual);
+            assertArrayEquals(expected, actual, 1e-4f);
+        }
+    }
+
+    private void assertMatchesExact(SurfaceWave wave, float tolerance) {
+        float[] expected = new float[COLUMNS];
+        float[] actual = new float[COLUMNS];
+
+        for (double phase = 0; phase < 20; phase += 0.037) {
+            exact.offsets(phase, expected);
+            wave.offsets(phase, actual);
+            assertArrayEquals("phase " + phase, expected, actual, tolerance);
+        }
+    }
+}
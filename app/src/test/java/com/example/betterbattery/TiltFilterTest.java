@@ -0,0 +1,145 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TiltFilterTest {
+
+    private static final long SAMPLE = 20_000_000L;
+
+    // Time in ms for the x output to reach 90% of a 5 m/s^2 step at game rate
+    private static int stepResponseMs(TiltFilter filter) {
+        return stepResponseMs(filter, SAMPLE);
+    }
+
+    // Same, with samples interval ns apart after 50 samples of still input
+    private static int stepResponseMs(TiltFilter filter, long interval) {
+        float[] sample = new float[3];
+        long time = 0;
+        for (int i = 0; i < 50; i++, time += interval) {
+            sample[0] = 0f;
+            filter.filter(time, sample);
+        }
+        for (int i = 1; i <= 100; i++, time += interval) {
+            sample[0] = 5f;
+            filter.filter(time, sample);
+            if (sample[0] >= 4.5f) {
+                return (int) (i * interval / 1_000_000L);
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    // Standard deviation of the x output for a still phone with 0.05 m/s^2 sensor noise
+    private static double stillNoise(TiltFilter filter) {
+        Random random = new Random(1);
+        float[] sample = new float[3];
+        double sum = 0;
+        double sumSquares = 0;
+        int count = 0;
+        for (int i = 0; i < 5000; i++) {
+            sample[0] = (float) random.nextGaussian() * 0.05f;
+            sample[1] = 9.81f;
+            sample[2] = 0f;
+            filter.filter(i * SAMPLE, sample);
+            if (i >= 500) {
+                sum += sample[0];
+                sumSquares += sample[0] * sample[0];
+                count++;
+            }
+        }
+        double mean = sum / count;
+        return Math.sqrt(sumSquares / count - mean * mean);
+    }
+
+    @Test
+    public void ema_matchesOriginalAverageAtGameRate() {
+        TiltFilter filter = TiltFilter.create(TiltFilter.EMA);
+        float[] sample = {0f, 0f, 0f};
+        filter.filter(0, sample);
+
+        float legacy = 0f;
+        for (int i = 1; i <= 20; i++) {
+            sample[0] = 3f;
+            filter.filter(i * SAMPLE, sample);
+            legacy = 0.8f * legacy + 0.2f * 3f;
+            assertEquals(legacy, sample[0], 1e-5f);
+        }
+    }
+
+    @Test
+    public void firstSample_passesThrough() {
+        for (int kind = TiltFilter.EMA; kind <= TiltFilter.KALMAN; kind++) {
+            TiltFilter filter = TiltFilter.create(kind);
+            float[] sample = {1f, 9f, -2f};
+            filter.filter(123_456_789L, sample);
+            assertArrayEquals(new float[] {1f, 9f, -2f}, sample, 0f);
+
+            filter.reset();
+            sample[0] = -4f;
+            filter.filter(200_000_000L, sample);
+            assertEquals(-4f, sample[0], 0f);
+        }
+    }
+
+    @Test
+    public void oneEuroAndKalman_lagLessThanEma() {
+        int ema = stepResponseMs(TiltFilter.create(TiltFilter.EMA));
+        assertEquals(220, ema);
+        assertTrue(stepResponseMs(TiltFilter.create(TiltFilter.ONE_EURO)) <= ema / 3);
+        assertTrue(stepResponseMs(TiltFilter.create(TiltFilter.KALMAN)) <= ema / 2);
+    }
+
+    @Test
+    public void slowerSensorRate_keepsResponseTime() {
+        // Game rate against the governor's normal rate: at most one sample interval slower
+        for (int kind = TiltFilter.EMA; kind <= TiltFilter.KALMAN; kind++) {
+            int fast = stepResponseMs(TiltFilter.create(kind), SAMPLE);
+            int slow = stepResponseMs(TiltFilter.create(kind), 10 * SAMPLE);
+            assertTrue("kind " + kind + ": " + fast + " vs " + slow + " ms", slow <= fast + 200);
+        }
+    }
+
+    @Test
+    public void oneEuro_smoothsStillPhoneAtLeastAsWellAsEma() {
+        double ema = stillNoise(TiltFilter.create(TiltFilter.EMA));
+        assertTrue(stillNoise(TiltFilter.create(TiltFilter.ONE_EURO)) < ema);
+    }
+
+    @Test
+    public void sameTimestamp_leavesOutputUnchanged() {
+        for (int kind = TiltFilter.EMA; kind <= TiltFilter.KALMAN; kind++) {
+            TiltFilter filter = TiltFilter.create(kind);
+            float[] sample = {0f, 0f, 0f};
+            filter.filter(0, sample);
+            sample[0] = 1f;
+            filter.filter(SAMPLE, sample);
+            float output = sample[0];
+            sample[0] = 50f;
+            filter.filter(SAMPLE, sample);
+            assertEquals(output, sample[0], 0f);
+        }
+    }
+
+    @Test
+    public void chain_runsStagesInOrder() {
+        TiltFilter chain = new TiltFilter.Chain(
+                TiltFilter.create(TiltFilter.EMA), TiltFilter.create(TiltFilter.EMA));
+        TiltFilter single = TiltFilter.create(TiltFilter.EMA);
+        float[] chained = {0f, 0f, 0f};
+        float[] once = {0f, 0f, 0f};
+        chain.filter(0, chained);
+        single.filter(0, once);
+
+        chained[0] = 1f;
+        once[0] = 1f;
+        chain.filter(SAMPLE, chained);
+        single.filter(SAMPLE, once);
+        // Two averages in series smooth twice: 0.2 * 0.2 of the step after one sample
+        assertEquals(0.2f, once[0], 1e-6f);
+        assertEquals(0.04f, chained[0], 1e-6f);
+    }
+}
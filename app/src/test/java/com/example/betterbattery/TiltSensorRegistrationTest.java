@@ -0,0 +1,65 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TiltSensorRegistrationTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final TiltSensorRegistration registration = new TiltSensorRegistration(
+            new TiltSensorRegistration.Registrar() {
+                @Override
+                public void register(int rate, int reportLatencyUs) {
+                    calls.add("register " + rate + " " + reportLatencyUs);
+                }
+
+                @Override
+                public void unregister() {
+                    calls.add("unregister");
+                }
+            }, SensorRateGovernor.RATE_FAST, 50_000);
+
+    @Test
+    public void changesWhileRegistered_reregister() {
+        registration.start();
+        registration.setRate(SensorRateGovernor.RATE_SLOW);
+        registration.setReportLatencyUs(250_000);
+        registration.setReportLatencyUs(250_000);
+        assertEquals(List.of("register 0 50000", "register 2 50000", "register 2 250000"), calls);
+    }
+
+    @Test
+    public void resumeDuringSleep_staysOffUntilWake() {
+        registration.start();
+        registration.setRate(SensorRateGovernor.RATE_SLOW);
+        registration.setReportLatencyUs(250_000);
+        calls.clear();
+
+        // Sensors asleep, then a battery broadcast or a long press resumes the render loop
+        registration.stop();
+        registration.setReportLatencyUs(50_000);
+        registration.setReportLatencyUs(250_000);
+        registration.setReportLatencyUs(50_000);
+        assertFalse(registration.isRegistered());
+        assertEquals(List.of("unregister"), calls);
+
+        // Significant motion: back on at game rate with the latency asked for last
+        registration.setRate(SensorRateGovernor.RATE_FAST);
+        registration.start();
+        assertTrue(registration.isRegistered());
+        assertEquals(List.of("unregister", "register 0 50000"), calls);
+    }
+
+    @Test
+    public void stop_unregistersOnce() {
+        registration.stop();
+        registration.start();
+        registration.stop();
+        registration.stop();
+        assertEquals(List.of("register 0 50000", "unregister"), calls);
+    }
+}
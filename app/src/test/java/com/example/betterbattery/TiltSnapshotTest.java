@@ -0,0 +1,47 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TiltSnapshotTest {
+
+    @Test
+    public void read_returnsLatestPublish() {
+        TiltSnapshot snapshot = new TiltSnapshot();
+        float[] tilt = new float[2];
+        snapshot.read(tilt);
+        assertArrayEquals(new float[] {0f, 0f}, tilt, 0f);
+
+        snapshot.publish(1f, -2f);
+        snapshot.publish(4f, 5f);
+        snapshot.read(tilt);
+        assertArrayEquals(new float[] {4f, 5f}, tilt, 0f);
+        assertEquals(2, snapshot.publishes());
+    }
+
+    @Test
+    public void concurrentRead_neverSeesTornVector() throws InterruptedException {
+        final TiltSnapshot snapshot = new TiltSnapshot();
+        final int publishes = 500_000;
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= publishes; i++) {
+                    snapshot.publish(i, 2f * i);
+                }
+            }
+        });
+        writer.start();
+
+        float[] tilt = new float[2];
+        float last = 0f;
+        while (writer.isAlive() || last < publishes) {
+            snapshot.read(tilt);
+            assertEquals(2f * tilt[0], tilt[1], 0f);
+            assertTrue(tilt[0] >= last);
+            last = tilt[0];
+        }
+        writer.join();
+    }
+}
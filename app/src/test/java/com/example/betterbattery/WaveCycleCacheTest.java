@@ -0,0 +1,53 @@
+package com.example.betterbattery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WaveCycleCacheTest {
+
+    private static final float PERIOD = 1600f;
+
+    private final WaveCycleCache cache = new WaveCycleCache(32, PERIOD, 4);
+
+    @Test
+    public void slot_wrapsEveryPeriod() {
+        assertEquals(0, cache.slot(0));
+        assertEquals(1, cache.slot(50));
+        assertEquals(31, cache.slot(1599));
+        assertEquals(cache.slot(70), cache.slot(70 + 5 * 1600));
+        assertEquals(Math.PI, cache.phase(16), 1e-9);
+    }
+
+    @Test
+    public void lookup_replaysStoredLayerForSameKey() {
+        assertNull(cache.lookup(7L, 3));
+
+        cache.store(7L, 3, new int[]{1, 2, 3, 4});
+        int[] layer = cache.lookup(7L, 3);
+
+        assertArrayEquals(new int[]{1, 2, 3, 4}, layer);
+        assertNull(cache.lookup(7L, 4));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void lookup_newKeyDropsEveryLayer() {
+        cache.store(7L, 3, new int[4]);
+        cache.store(7L, 5, new int[4]);
+
+        assertNull(cache.lookup(8L, 3));
+        // Coming back to the old key does not resurrect its layers
+        assertNull(cache.lookup(7L, 5));
+    }
+
+    @Test
+    public void store_copiesTheLayer() {
+        int[] layer = {1, 1, 1, 1};
+        cache.store(1L, 0, layer);
+        layer[0] = 9;
+
+        assertEquals(1, cache.lookup(1L, 0)[0]);
+    }
+}
@@ -0,0 +1,30 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The liquid engine is plain Java, so it is compiled straight from the app sources
+// for the JVM; only the Android service and the on-device trace recorder are left out
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            exclude("**/BetterBatteryToyService.java")
+            exclude("**/SensorTraceRecorder.java")
+        }
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // Allocation rate next to every score, the render path is meant to allocate nothing
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    // -Pjmh.includes=<regex> runs a subset of the benchmarks
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
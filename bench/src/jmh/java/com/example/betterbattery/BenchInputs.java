@@ -0,0 +1,21 @@
+package com.example.betterbattery;
+
+/** Shared parameter conversions for the benchmarks. */
+final class BenchInputs {
+
+    static final int SIZE = 25;
+    static final float GRAVITY = 9.8f;
+
+    private BenchInputs() {
+    }
+
+    /** Gravity towards the matrix's right edge for a phone rolled {@code tilt} degrees from upright. */
+    static float gravityRight(int tilt) {
+        return (float) (GRAVITY * Math.sin(Math.toRadians(tilt)));
+    }
+
+    /** Gravity towards the matrix's bottom edge for a phone rolled {@code tilt} degrees from upright. */
+    static float gravityDown(int tilt) {
+        return (float) (GRAVITY * Math.cos(Math.toRadians(tilt)));
+    }
+}
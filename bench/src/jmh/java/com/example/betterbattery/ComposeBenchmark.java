@@ -0,0 +1,52 @@
+package com.example.betterbattery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/** Contrast and text composition over a rasterized liquid layer. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComposeBenchmark {
+
+    @Param({"5", "50", "100"})
+    public int level;
+
+    private FrameCompositor compositor;
+    private PercentTextAtlas textAtlas;
+    private int[] liquid;
+    private final int[] frame = new int[BenchInputs.SIZE * BenchInputs.SIZE];
+
+    @Setup
+    public void setUp() {
+        MatrixGeometry geometry = new MatrixGeometry(BenchInputs.SIZE);
+        float[] surface = new float[BenchInputs.SIZE];
+        Arrays.fill(surface, new GravitySurfaceSolver(geometry).flatSurfaceRow(level / 100f));
+        liquid = new LiquidRasterizer(geometry).rasterize(surface, LiquidEngine.LIQUID_PIXEL);
+
+        compositor = new FrameCompositor(BenchInputs.SIZE, LiquidEngine.CONTRAST_PIXEL, LiquidEngine.TEXT_PIXEL);
+        compositor.setContrastRoundRect(6.5f, 7.5f, 18.5f, 17.5f, 2f);
+        textAtlas = new PercentTextAtlas(BenchInputs.SIZE, 4, 9);
+    }
+
+    @Benchmark
+    public int[] compose() {
+        compositor.setTextMask(textAtlas.bits(), textAtlas.offset(level));
+        return compositor.compose(liquid, frame);
+    }
+}
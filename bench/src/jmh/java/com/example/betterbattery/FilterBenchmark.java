@@ -0,0 +1,55 @@
+package com.example.betterbattery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of smoothing one accelerometer sample with each {@link TiltFilter}, fed
+ * a slowly swinging, slightly noisy vector at game rate. {@code filter} is the
+ * kind passed to {@link TiltFilter#create}: 0 EMA, 1 ONE_EURO, 2 KALMAN.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    private static final long SAMPLE_NS = 20_000_000L;
+
+    @Param({"0", "1", "2"})
+    public int filter;
+
+    private TiltFilter tiltFilter;
+    private final float[] sample = new float[3];
+    private long time;
+    private int samples;
+
+    @Setup
+    public void setUp() {
+        tiltFilter = TiltFilter.create(filter);
+    }
+
+    @Benchmark
+    public float[] filter() {
+        time += SAMPLE_NS;
+        int tilt = (samples++ & 63) - 32;
+        sample[0] = BenchInputs.gravityRight(tilt) + ((samples & 7) - 3.5f) * 0.01f;
+        sample[1] = BenchInputs.gravityDown(tilt);
+        sample[2] = 0.3f;
+        tiltFilter.filter(time, sample);
+        return sample;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.betterbattery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full frame production through {@link LiquidEngine}: simulation, liquid layer,
+ * composition and hand-off, with simulated time advancing one 50ms frame per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+
+    private static final int FRAME_MS = 50;
+
+    @Param({"5", "50", "95"})
+    public int level;
+
+    @Param({"0", "20", "90", "180"})
+    public int tilt;
+
+    @Param({"float", "fixed"})
+    public String physics;
+
+    @Param({"true", "false"})
+    public boolean atlas;
+
+    private final int[] frame = new int[BenchInputs.SIZE * BenchInputs.SIZE];
+    private LiquidEngine engine;
+    private float gravityRight;
+    private float gravityDown;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        FrameSink sink = new FrameSink() {
+            @Override
+            public int[] beginFrame() {
+                return frame;
+            }
+
+            @Override
+            public void endFrame() {
+            }
+        };
+        engine = new LiquidEngine(BenchInputs.SIZE, FRAME_MS, "fixed".equals(physics), atlas, sink);
+        engine.setBatteryLevel(level);
+        gravityRight = BenchInputs.gravityRight(tilt);
+        gravityDown = BenchInputs.gravityDown(tilt);
+    }
+
+    @Benchmark
+    public int[] renderFrame() {
+        now += FRAME_MS;
+        engine.renderFrame(now, gravityRight, gravityDown);
+        return frame;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.betterbattery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Liquid layer production: rasterizing solved surface spans against expanding
+ * an atlas mask with the ripple, and the ripple generators themselves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterBenchmark {
+
+    @Param({"5", "50", "95"})
+    public int level;
+
+    @Param({"0", "20", "180"})
+    public int tilt;
+
+    private LiquidRasterizer rasterizer;
+    private LiquidFrameAtlas atlas;
+    private final float[] spanTop = new float[BenchInputs.SIZE];
+    private final float[] spanBottom = new float[BenchInputs.SIZE];
+    private final float[] ripple = new float[BenchInputs.SIZE];
+    private int atlasOffset;
+    private boolean rippleTop;
+
+    private final SurfaceWave exactWave = new SurfaceWave.Exact(LiquidEngine.WAVE_NUMBER, LiquidEngine.WAVE_AMPLITUDE);
+    private final SurfaceWave tableWave = new SurfaceWave.Table(LiquidEngine.WAVE_NUMBER, LiquidEngine.WAVE_AMPLITUDE);
+    private final SurfaceWave rotationWave = new SurfaceWave.Rotation(LiquidEngine.WAVE_NUMBER, LiquidEngine.WAVE_AMPLITUDE);
+    private double phase;
+
+    @Setup
+    public void setUp() {
+        MatrixGeometry geometry = new MatrixGeometry(BenchInputs.SIZE);
+        GravitySurfaceSolver surfaceSolver = new GravitySurfaceSolver(geometry);
+        float gravityRight = BenchInputs.gravityRight(tilt);
+        float gravityDown = BenchInputs.gravityDown(tilt);
+
+        rasterizer = new LiquidRasterizer(geometry);
+        atlas = new LiquidFrameAtlas(geometry, surfaceSolver, 48);
+        surfaceSolver.solve(gravityRight, gravityDown, level / 100f, spanTop, spanBottom);
+        atlasOffset = atlas.offset(level, atlas.angleIndex(gravityRight, gravityDown));
+        rippleTop = gravityDown >= 0f;
+        tableWave.offsets(1.0, ripple);
+    }
+
+    @Benchmark
+    public int[] rasterizeSpans() {
+        return rasterizer.rasterize(spanTop, spanBottom, LiquidEngine.LIQUID_PIXEL);
+    }
+
+    @Benchmark
+    public int[] rasterizeAtlasMask() {
+        return rasterizer.rasterize(atlas.bits(level), atlasOffset, ripple, rippleTop, LiquidEngine.LIQUID_PIXEL);
+    }
+
+    @Benchmark
+    public float[] waveExact() {
+        phase += 0.2;
+        exactWave.offsets(phase, ripple);
+        return ripple;
+    }
+
+    @Benchmark
+    public float[] waveTable() {
+        phase += 0.2;
+        tableWave.offsets(phase, ripple);
+        return ripple;
+    }
+
+    @Benchmark
+    public float[] waveRotation() {
+        phase += 0.2;
+        rotationWave.offsets(phase, ripple);
+        return ripple;
+    }
+}
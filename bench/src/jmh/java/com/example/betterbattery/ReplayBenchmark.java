@@ -0,0 +1,73 @@
+package com.example.betterbattery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-speed replay of a one-minute sensor trace through a fresh engine: the
+ * fill animation, then the phone rocked by {@code swing} degrees for 20s and
+ * left still for the rest. Synthesized in memory so every run sees the same input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    private static final int FRAME_MS = 50;
+    private static final int SAMPLE_MS = 20;
+    private static final long TRACE_MS = 60000;
+
+    @Param({"5", "50", "95"})
+    public int level;
+
+    @Param({"0", "30"})
+    public int swing;
+
+    private final byte[] trace = new byte[SensorTrace.HEADER_BYTES
+            + (int) (TRACE_MS / SAMPLE_MS + 2) * SensorTrace.MAX_RECORD_BYTES];
+    private final int[] frame = new int[BenchInputs.SIZE * BenchInputs.SIZE];
+    private final FrameSink sink = new FrameSink() {
+        @Override
+        public int[] beginFrame() {
+            return frame;
+        }
+
+        @Override
+        public void endFrame() {
+        }
+    };
+    private int length;
+
+    @Setup
+    public void setUp() {
+        SensorTraceWriter writer = new SensorTraceWriter();
+        length = SensorTraceWriter.header(trace, 0);
+        length = writer.battery(trace, length, 0, level);
+        for (long t = 0; t <= TRACE_MS; t += SAMPLE_MS) {
+            int tilt = t < 20000 ? (int) Math.round(swing * Math.sin(t * 0.003)) : 0;
+            length = writer.accelerometer(trace, length, t * 1000000,
+                    BenchInputs.gravityRight(tilt), BenchInputs.gravityDown(tilt), 0f);
+        }
+    }
+
+    @Benchmark
+    public int replay() {
+        LiquidEngine engine = new LiquidEngine(BenchInputs.SIZE, FRAME_MS, false, true, sink);
+        SensorTraceReplayer replayer = new SensorTraceReplayer(engine, FRAME_MS, TiltFilter.create(TiltFilter.ONE_EURO));
+        return replayer.replay(new SensorTraceReader(trace, length));
+    }
+}
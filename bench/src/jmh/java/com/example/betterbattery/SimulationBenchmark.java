@@ -0,0 +1,74 @@
+package com.example.betterbattery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Liquid physics: one fixed solver step (the body of the engine's simulation
+ * loop) and the exact still-surface solve done once per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"5", "50", "95"})
+    public int level;
+
+    @Param({"0", "20", "45"})
+    public int tilt;
+
+    @Param({"float", "fixed"})
+    public String physics;
+
+    private LiquidSolver solver;
+    private GravitySurfaceSolver surfaceSolver;
+    private final float[] surfaceRows = new float[BenchInputs.SIZE];
+    private final float[] spanTop = new float[BenchInputs.SIZE];
+    private final float[] spanBottom = new float[BenchInputs.SIZE];
+    private float gravityRight;
+    private float gravityDown;
+    private float fill;
+    private int steps;
+
+    @Setup
+    public void setUp() {
+        MatrixGeometry geometry = new MatrixGeometry(BenchInputs.SIZE);
+        float dt = LiquidEngine.SIM_STEP_MS / 1000f;
+        solver = "fixed".equals(physics) ? new FixedPointWaterSolver(geometry, dt) : new ShallowWaterSolver(geometry, dt);
+        surfaceSolver = new GravitySurfaceSolver(geometry);
+        gravityRight = BenchInputs.gravityRight(tilt);
+        gravityDown = BenchInputs.gravityDown(tilt);
+        fill = level / 100f;
+        solver.reset(surfaceSolver.flatSurfaceRow(fill));
+    }
+
+    @Benchmark
+    public float[] step() {
+        // Rock the phone every half second so the water keeps moving
+        float right = (steps++ & 32) == 0 ? gravityRight : -gravityRight;
+        solver.step(right, gravityDown);
+        solver.surfaceRows(surfaceRows);
+        return surfaceRows;
+    }
+
+    @Benchmark
+    public float[] solveStillSurface() {
+        surfaceSolver.solve(gravityRight, gravityDown, fill, spanTop, spanBottom);
+        return spanTop;
+    }
+}
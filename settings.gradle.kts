@@ -21,4 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "BetterBattery"
 include(":app")
+include(":bench")
  
\ No newline at end of file